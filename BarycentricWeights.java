@@ -0,0 +1,237 @@
+import java.math.BigInteger;
+
+/**
+ * Exact Lagrange interpolation in barycentric form over a fixed set of
+ * x-coordinates.
+ *
+ * For each node the barycentric denominator d_i = prod(x_i - x_j), j != i,
+ * is computed once, and every basis polynomial is scaled onto the common
+ * denominator D = lcm(d_i). Evaluating the interpolant then costs one
+ * multiply-add per point and a single final division by D, instead of one
+ * long division per Lagrange term.
+ */
+public class BarycentricWeights {
+
+    /** Largest magnitude that may be multiplied into a long chunk without overflow. */
+    private static final long CHUNK_LIMIT = 1L << 31;
+
+    private final long[] xs;
+    private final BigInteger denominator;
+    private final BigInteger[] scales;
+    private volatile BigInteger[] constantCoefficients;
+    private volatile BigAccumulator.Limbs[] constantLimbs;
+
+    public BarycentricWeights(long[] xs) {
+        this(xs, denominators(xs));
+    }
+
+    /**
+     * Weights from barycentric denominators d_i already known to the caller,
+     * e.g. maintained incrementally as shares arrive.
+     */
+    BarycentricWeights(long[] xs, BigInteger[] d) {
+        this.xs = xs.clone();
+        int k = xs.length;
+        BigInteger lcm = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            lcm = lcm(lcm, d[i].abs());
+        }
+
+        this.denominator = lcm;
+        this.scales = new BigInteger[k];
+        for (int i = 0; i < k; i++) {
+            scales[i] = lcm.divide(d[i]);
+        }
+    }
+
+    private static BigInteger[] denominators(long[] xs) {
+        if (xs.length == 0) {
+            throw new IllegalArgumentException("At least one point is required");
+        }
+        BigInteger[] d = new BigInteger[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            d[i] = productOfDifferences(xs, i);
+        }
+        return d;
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public long x(int i) {
+        return xs[i];
+    }
+
+    /**
+     * Common denominator D shared by every basis polynomial.
+     */
+    public BigInteger denominator() {
+        return denominator;
+    }
+
+    /**
+     * Numerators c_i of the Lagrange basis values at x, so that L_i(x) = c_i / D.
+     * The array is the caller's own.
+     *
+     * @throws ArithmeticException if x - x_i overflows a long
+     */
+    public BigInteger[] coefficientsAt(long x) {
+        return x == 0 ? constantCoefficients().clone() : computeCoefficientsAt(x);
+    }
+
+    /** Compute the numerators of L_i(0) now, so the first constantTerm does not pay for them. */
+    void prepareConstantTerm() {
+        constantCoefficients();
+    }
+
+    /** The numerators of L_i(0), computed once and shared; never handed out. */
+    private BigInteger[] constantCoefficients() {
+        BigInteger[] coefficients = constantCoefficients;
+        if (coefficients == null) {
+            coefficients = computeCoefficientsAt(0);
+            constantCoefficients = coefficients;
+        }
+        return coefficients;
+    }
+
+    private BigInteger[] computeCoefficientsAt(long x) {
+        int k = xs.length;
+        BigInteger[] differences = new BigInteger[k];
+        BigInteger[] prefix = new BigInteger[k];
+        BigInteger acc = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            differences[i] = BigInteger.valueOf(Math.subtractExact(x, xs[i]));
+            prefix[i] = acc;
+            acc = acc.multiply(differences[i]);
+        }
+
+        BigInteger[] coefficients = new BigInteger[k];
+        BigInteger suffix = BigInteger.ONE;
+        for (int i = k - 1; i >= 0; i--) {
+            coefficients[i] = scales[i].multiply(prefix[i]).multiply(suffix);
+            suffix = suffix.multiply(differences[i]);
+        }
+        return coefficients;
+    }
+
+    /**
+     * Numerator of f(x) over the common denominator, i.e. D * f(x).
+     * Comparing this against D * y avoids dividing at all.
+     */
+    public BigInteger scaledValueAt(BigInteger[] ys, long x) {
+        if (ys.length != xs.length) {
+            throw new IllegalArgumentException("Expected " + xs.length + " y-values, got " + ys.length);
+        }
+        if (x == 0 && wordSized(ys)) {
+            return dot(constantLimbs(), ys);
+        }
+        return dot(x == 0 ? constantCoefficients() : coefficientsAt(x), ys);
+    }
+
+    /**
+     * Evaluate the interpolating polynomial at x with a single division.
+     *
+     * @throws ArithmeticException if f(x) is not an integer
+     */
+    public BigInteger valueAt(BigInteger[] ys, long x) {
+        return divideExact(scaledValueAt(ys, x), x);
+    }
+
+    /**
+     * The secret f(0).
+     */
+    public BigInteger constantTerm(BigInteger[] ys) {
+        return valueAt(ys, 0);
+    }
+
+    /**
+     * One-shot reconstruction of f(0) from the given shares.
+     */
+    public static BigInteger constantTerm(long[] xs, BigInteger[] ys) {
+        return new BarycentricWeights(xs).constantTerm(ys);
+    }
+
+    private static BigInteger dot(BigInteger[] coefficients, BigInteger[] ys) {
+        BigInteger sum = BigInteger.ZERO;
+        for (int i = 0; i < ys.length; i++) {
+            sum = sum.add(ys[i].multiply(coefficients[i]));
+        }
+        return sum;
+    }
+
+    /**
+     * sum c_i * y_i, multiply-accumulated in place rather than through a
+     * product and a partial sum per term. Only used for word-sized y: for
+     * longer y the JIT's intrinsic BigInteger.multiply outruns a Java limb
+     * loop by more than the garbage costs.
+     */
+    private static BigInteger dot(BigAccumulator.Limbs[] coefficients, BigInteger[] ys) {
+        try (BigAccumulator sum = BigAccumulator.borrow()) {
+            for (int i = 0; i < ys.length; i++) {
+                sum.addProduct(coefficients[i], ys[i]);
+            }
+            return sum.toBigInteger();
+        }
+    }
+
+    /** The numerators of L_i(0) in limb form, converted once. */
+    private BigAccumulator.Limbs[] constantLimbs() {
+        BigAccumulator.Limbs[] limbs = constantLimbs;
+        if (limbs == null) {
+            limbs = BigAccumulator.Limbs.of(constantCoefficients());
+            constantLimbs = limbs;
+        }
+        return limbs;
+    }
+
+    private static boolean wordSized(BigInteger[] ys) {
+        for (BigInteger y : ys) {
+            if (y.bitLength() >= Long.SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private BigInteger divideExact(BigInteger scaled, long x) {
+        BigInteger[] qr = scaled.divideAndRemainder(denominator);
+        if (qr[1].signum() != 0) {
+            throw new ArithmeticException("f(" + x + ") = " + scaled + "/" + denominator
+                + " is not an integer");
+        }
+        return qr[0];
+    }
+
+    /**
+     * prod(x_i - x_j) for j != i, multiplying small factors in a long before
+     * promoting to BigInteger.
+     */
+    private static BigInteger productOfDifferences(long[] xs, int i) {
+        BigInteger product = BigInteger.ONE;
+        long chunk = 1;
+        for (int j = 0; j < xs.length; j++) {
+            if (i == j) {
+                continue;
+            }
+            long diff = Math.subtractExact(xs[i], xs[j]);
+            if (diff == 0) {
+                throw new IllegalArgumentException("Duplicate x-coordinate: " + xs[i]);
+            }
+            // Compared on both sides: Math.abs(Long.MIN_VALUE) is negative
+            if (diff >= CHUNK_LIMIT || diff <= -CHUNK_LIMIT) {
+                product = product.multiply(BigInteger.valueOf(diff));
+            } else if (chunk >= CHUNK_LIMIT || chunk <= -CHUNK_LIMIT) {
+                product = product.multiply(BigInteger.valueOf(chunk));
+                chunk = diff;
+            } else {
+                chunk *= diff;
+            }
+        }
+        return product.multiply(BigInteger.valueOf(chunk));
+    }
+
+    private static BigInteger lcm(BigInteger a, BigInteger b) {
+        return a.divide(a.gcd(b)).multiply(b);
+    }
+}
@@ -0,0 +1,214 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Converts digit strings in bases 2-36 to BigInteger in subquadratic time.
+ *
+ * Digits are first packed into long chunks of m digits each, where base^m
+ * is the largest power that fits in a long. The chunks are then combined
+ * divide-and-conquer with cached powers base^(m * 2^i), so the big
+ * multiplications happen on balanced operands and use BigInteger's
+ * Karatsuba/Toom-Cook paths. Power-of-two bases skip the arithmetic
+ * entirely and pack bits straight into the magnitude.
+ */
+public class BaseConverter {
+
+    public static final int MIN_BASE = 2;
+    public static final int MAX_BASE = 36;
+
+    /** Below this many chunks the linear multiply-add is faster than splitting. */
+    private static final int LINEAR_CHUNKS = 32;
+
+    /** Digits per long chunk, per base. */
+    private static final int[] CHUNK_DIGITS = new int[MAX_BASE + 1];
+    /** base^CHUNK_DIGITS, per base. */
+    private static final long[] CHUNK_RADIX = new long[MAX_BASE + 1];
+    /**
+     * powers[base][i] = CHUNK_RADIX[base]^(2^i), grown on demand. Copy-on-write:
+     * a published table is never modified, so readers need no lock; a miss
+     * publishes a grown copy under POWERS_LOCK.
+     */
+    private static volatile BigInteger[][] powers;
+    private static final Object POWERS_LOCK = new Object();
+
+    static {
+        BigInteger[][] initial = new BigInteger[MAX_BASE + 1][];
+        for (int base = MIN_BASE; base <= MAX_BASE; base++) {
+            int digits = 0;
+            long radix = 1;
+            while (radix <= Long.MAX_VALUE / base) {
+                radix *= base;
+                digits++;
+            }
+            CHUNK_DIGITS[base] = digits;
+            CHUNK_RADIX[base] = radix;
+            initial[base] = new BigInteger[] { BigInteger.valueOf(radix) };
+        }
+        powers = initial;
+    }
+
+    private BaseConverter() {
+    }
+
+    /**
+     * Parse value as an unsigned number in the given base (digits 0-9, a-z, A-Z).
+     */
+    public static BigInteger toBigInteger(String value, int base) {
+        if (base < MIN_BASE || base > MAX_BASE) {
+            throw new IllegalArgumentException("Unsupported base: " + base);
+        }
+        int len = value.length();
+        if (len <= CHUNK_DIGITS[base]) {
+            return BigInteger.valueOf(parseChunk(value, 0, len, base));
+        }
+        if (Integer.bitCount(base) == 1) {
+            return packBits(value, base);
+        }
+
+        int m = CHUNK_DIGITS[base];
+        int count = (len + m - 1) / m;
+        long[] chunks = new long[count];
+        int end = len;
+        for (int c = count - 1; c >= 0; c--) {
+            int start = Math.max(0, end - m);
+            chunks[c] = parseChunk(value, start, end, base);
+            end = start;
+        }
+        return combine(chunks, 0, count, base);
+    }
+
+    /**
+     * Whether value, in the given base, fits in a long. Short strings always
+     * do; longer ones are checked against Long.MAX_VALUE.
+     */
+    public static boolean fitsInLong(String value, int base) {
+        if (base < MIN_BASE || base > MAX_BASE) {
+            throw new IllegalArgumentException("Unsupported base: " + base);
+        }
+        if (value.length() <= CHUNK_DIGITS[base]) {
+            return true;
+        }
+        try {
+            toLong(value, base);
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parse value as an unsigned number in the given base, without BigInteger.
+     *
+     * @throws ArithmeticException if the value exceeds Long.MAX_VALUE
+     */
+    public static long toLong(String value, int base) {
+        if (base < MIN_BASE || base > MAX_BASE) {
+            throw new IllegalArgumentException("Unsupported base: " + base);
+        }
+        int len = value.length();
+        if (len <= CHUNK_DIGITS[base]) {
+            return parseChunk(value, 0, len, base);
+        }
+        long result = 0;
+        for (int i = 0; i < len; i++) {
+            result = Math.addExact(Math.multiplyExact(result, base), digitValue(value.charAt(i), base));
+        }
+        return result;
+    }
+
+    /**
+     * Value of chunks[lo, hi), most significant first.
+     */
+    private static BigInteger combine(long[] chunks, int lo, int hi, int base) {
+        int count = hi - lo;
+        if (count <= LINEAR_CHUNKS) {
+            BigInteger radix = powers[base][0];
+            BigInteger result = BigInteger.valueOf(chunks[lo]);
+            for (int i = lo + 1; i < hi; i++) {
+                result = result.multiply(radix).add(BigInteger.valueOf(chunks[i]));
+            }
+            return result;
+        }
+        // Low half is the largest power-of-two number of chunks, so its radix power is cached
+        int level = 31 - Integer.numberOfLeadingZeros(count - 1);
+        int split = hi - (1 << level);
+        BigInteger high = combine(chunks, lo, split, base);
+        BigInteger low = combine(chunks, split, hi, base);
+        return high.multiply(power(base, level)).add(low);
+    }
+
+    private static BigInteger power(int base, int level) {
+        BigInteger[] cached = powers[base];
+        if (level < cached.length) {
+            return cached[level];
+        }
+        synchronized (POWERS_LOCK) {
+            BigInteger[][] table = powers;
+            cached = table[base];
+            if (level >= cached.length) {
+                BigInteger[] grown = Arrays.copyOf(cached, level + 1);
+                for (int i = cached.length; i <= level; i++) {
+                    grown[i] = grown[i - 1].multiply(grown[i - 1]);
+                }
+                table = table.clone();
+                table[base] = grown;
+                powers = table;
+                cached = grown;
+            }
+            return cached[level];
+        }
+    }
+
+    /**
+     * Bases 2, 4, 8, 16 and 32: each digit is a fixed number of bits.
+     */
+    private static BigInteger packBits(String value, int base) {
+        int bits = Integer.numberOfTrailingZeros(base);
+        int len = value.length();
+        int totalBits = len * bits;
+        byte[] magnitude = new byte[(totalBits + 7) / 8];
+
+        // Fill from the least significant digit; the accumulator never holds more than 12 bits
+        int acc = 0;
+        int accBits = 0;
+        int out = magnitude.length - 1;
+        for (int i = len - 1; i >= 0; i--) {
+            acc |= digitValue(value.charAt(i), base) << accBits;
+            accBits += bits;
+            while (accBits >= 8) {
+                magnitude[out--] = (byte) acc;
+                acc >>>= 8;
+                accBits -= 8;
+            }
+        }
+        if (accBits > 0) {
+            magnitude[out] = (byte) acc;
+        }
+        return new BigInteger(1, magnitude);
+    }
+
+    private static long parseChunk(String value, int start, int end, int base) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            result = result * base + digitValue(value.charAt(i), base);
+        }
+        return result;
+    }
+
+    private static int digitValue(char digit, int base) {
+        int digitValue;
+        if (digit >= '0' && digit <= '9') {
+            digitValue = digit - '0';
+        } else if (digit >= 'a' && digit <= 'z') {
+            digitValue = digit - 'a' + 10;
+        } else if (digit >= 'A' && digit <= 'Z') {
+            digitValue = digit - 'A' + 10;
+        } else {
+            throw new IllegalArgumentException("Invalid digit: " + digit);
+        }
+        if (digitValue >= base) {
+            throw new IllegalArgumentException("Digit " + digit + " is invalid for base " + base);
+        }
+        return digitValue;
+    }
+}
@@ -0,0 +1,310 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Reconstructs secrets for many share files in parallel.
+ *
+ * Each file is parsed, converted, reconstructed and verified as one task on
+ * an {@link OrderedSink}, which caps the number of files in flight (running
+ * or waiting to be written), so memory stays bounded however many files are
+ * queued. Results are written one tab-separated line per file:
+ *
+ * <pre>
+ * path  n  k  secret  status
+ * </pre>
+ *
+ * either in input order or as soon as each file completes.
+ */
+public class BatchRunner {
+
+    /** Initial capacity for one file's result line */
+    private static final int LINE_CAPACITY = 128;
+
+    private final int threads;
+    private final int maxInFlight;
+    private final boolean ordered;
+    private final PrimeField field;
+    private final ResultCache cache;
+    private final String cacheContext;
+    private final FingerprintVerifier fingerprint;
+    private final EngineSelector selector;
+    private final AtomicLong failures = new AtomicLong();
+
+    public BatchRunner(int threads, int maxInFlight, boolean ordered, PrimeField field) {
+        this(threads, maxInFlight, ordered, field, null, null);
+    }
+
+    /**
+     * Runner that skips files whose result is already in cache, and adds
+     * each new result to it. Extra points are checked by fingerprint when
+     * one is given, and exactly only if that fails. Either may be null.
+     */
+    public BatchRunner(int threads, int maxInFlight, boolean ordered, PrimeField field,
+                       ResultCache cache, FingerprintVerifier fingerprint) {
+        if (threads < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("threads and maxInFlight must be positive");
+        }
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+        this.field = field;
+        this.cache = cache;
+        this.cacheContext = ResultCache.context(field, fingerprint);
+        this.fingerprint = fingerprint;
+        // Several workers already fill the cores; a parallel engine in each would oversubscribe them
+        this.selector = threads > 1 ? EngineSelector.serial() : EngineSelector.shared();
+    }
+
+    /**
+     * Number of files that failed to parse, reconstruct or verify in the last run.
+     */
+    public long failures() {
+        return failures.get();
+    }
+
+    /**
+     * Process every file matched by spec: a directory (its *.json and binary
+     * *.hss files) or a glob such as "shares/**&#47;*.json".
+     */
+    public long run(String spec, Writer out) throws IOException, InterruptedException {
+        Path dir = Paths.get(spec);
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.{json,hss}")) {
+                return run(files.iterator(), out);
+            }
+        }
+        int slash = globSlash(spec);
+        Path root = Paths.get(slash < 0 ? "." : spec.substring(0, Math.max(slash, 1)));
+        String pattern = spec.substring(slash + 1);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        // Without "**" a match can be no deeper than the pattern's own segments
+        int depth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("/").length;
+        try (Stream<Path> files = Files.walk(root, depth)) {
+            return run(files.filter(p -> Files.isRegularFile(p) && matcher.matches(root.relativize(p)))
+                            .iterator(), out);
+        }
+    }
+
+    /**
+     * Process files from the iterator; returns the number of files processed.
+     */
+    public long run(Iterator<Path> files, Writer out) throws IOException, InterruptedException {
+        failures.set(0);
+        if (threads > 1) {
+            // Time the engines before the workers start competing with the measurement
+            selector.calibrate();
+        }
+        OrderedSink sink = new OrderedSink(out, threads, maxInFlight, ordered);
+        try {
+            while (files.hasNext() && !sink.failed()) {
+                Path file = files.next();
+                sink.submit(LINE_CAPACITY, text -> solveInto(text, file));
+            }
+        } finally {
+            sink.shutdown();
+        }
+        sink.finish();
+        return sink.submitted();
+    }
+
+    /**
+     * Solve one file and append its line. A line is appended even if solve
+     * fails with an Error, so every file gets one.
+     */
+    private void solveInto(StringBuilder text, Path file) {
+        String line = null;
+        try {
+            line = solve(file);
+        } finally {
+            if (line == null) {
+                failures.incrementAndGet();
+                line = file + "\t-\t-\t-\tERROR aborted";
+            }
+            text.append(line).append('\n');
+        }
+    }
+
+    /**
+     * Result line for one file; never throws an Exception.
+     */
+    String solve(Path file) {
+        Shares shares = new Shares();
+        String source = file.toString();
+        try {
+            String fileKey = null;
+            String canonicalKey = null;
+            if (cache != null) {
+                fileKey = ResultCache.fileKey(file, cacheContext);
+                ResultCache.Result cached = cache.get(fileKey);
+                if (cached != null) {
+                    return line(file, cached);
+                }
+                shares.canonical = new ResultCache.Canonical(cacheContext);
+            }
+            try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.PARSE, source)) {
+                shares.load(file);
+                span.points(shares.store.size());
+            }
+            if (shares.canonical != null && !shares.binary) {
+                canonicalKey = shares.canonical.key();
+                ResultCache.Result cached = cache.get(canonicalKey);
+                if (cached != null) {
+                    cache.put(cached, fileKey);
+                    return line(file, cached);
+                }
+            }
+            ShareStore store = shares.store;
+            int k = Math.min(shares.k, store.size());
+            if (k < 1) {
+                throw new IllegalArgumentException("no points");
+            }
+            long[] xs = store.xs();
+            String secret;
+            boolean verified;
+            PrimeField field = this.field != null || shares.prime == 0 ? this.field : PrimeField.of(shares.prime);
+            if (field != null) {
+                long[] residues;
+                try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.CONVERT, source)) {
+                    residues = store.residues(field);
+                    span.points(residues.length);
+                }
+                FieldLagrange lagrange = new FieldLagrange(field, k);
+                try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.INTERPOLATE, source)) {
+                    secret = Long.toString(lagrange.constantTerm(xs, residues, k));
+                    span.points(k);
+                }
+                verified = true;
+                try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.VERIFY, source)) {
+                    for (int i = k; i < xs.length && verified; i++) {
+                        verified = lagrange.valueAt(xs, residues, k, xs[i]) == residues[i];
+                    }
+                    span.points(xs.length - k);
+                }
+            } else {
+                try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.INTERPOLATE, source)) {
+                    secret = selector.constantTerm(store, k).toString();
+                    span.points(k);
+                }
+                verified = true;
+                if (xs.length > k) {
+                    try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.VERIFY, source)) {
+                        if (fingerprint == null || !fingerprint.verify(xs, store, k)) {
+                            NewtonPolynomial polynomial = new NewtonPolynomial(store.xs(k), store.ys(k));
+                            for (int i = k; i < xs.length && verified; i++) {
+                                verified = polynomial.passesThrough(xs[i], store.y(i));
+                            }
+                        }
+                        span.points(xs.length - k);
+                    }
+                }
+            }
+            ResultCache.Result result = ResultCache.Result.of(shares.n, shares.k, secret, verified);
+            if (cache != null) {
+                if (canonicalKey != null) {
+                    cache.put(result, fileKey, canonicalKey);
+                } else {
+                    cache.put(result, fileKey);
+                }
+            }
+            return line(file, result);
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            return file + "\t" + shares.n + "\t" + shares.k + "\t-\tERROR " + e.getMessage();
+        }
+    }
+
+    private String line(Path file, ResultCache.Result result) {
+        if (!ResultCache.VERIFIED.equals(result.status)) {
+            failures.incrementAndGet();
+        }
+        return file + "\t" + result.n + "\t" + result.k + "\t" + result.secret + "\t" + result.status;
+    }
+
+    /**
+     * Index of the last '/' before the first glob character, or -1: the
+     * directory to walk is everything before it and the pattern everything after.
+     */
+    private static int globSlash(String spec) {
+        int glob = spec.length();
+        for (char c : new char[] { '*', '?', '[', '{' }) {
+            int i = spec.indexOf(c);
+            if (i >= 0) {
+                glob = Math.min(glob, i);
+            }
+        }
+        return spec.lastIndexOf('/', glob);
+    }
+
+    /**
+     * Shares of one file in a {@link ShareStore}. JSON points are packed as
+     * soon as they are read; binary files are viewed in place through their
+     * mapping.
+     */
+    private static final class Shares implements ShareFileReader.Listener {
+        /** One store per worker, emptied for each file, so its direct buffer is allocated once. */
+        private static final ThreadLocal<ShareStore> STORES = ThreadLocal.withInitial(ShareStore::new);
+
+        int n;
+        int k;
+        long prime;
+        ShareStore store = reused();
+        /** Builds the cache key as the file is read, when caching */
+        ResultCache.Canonical canonical;
+        boolean binary;
+
+        private static ShareStore reused() {
+            ShareStore store = STORES.get();
+            store.clear();
+            return store;
+        }
+
+        void load(Path file) throws IOException {
+            if (BinaryShareFile.matches(file)) {
+                BinaryShareFile shares = BinaryShareFile.open(file);
+                n = shares.n();
+                k = shares.k();
+                prime = shares.prime();
+                store = shares.store();
+                binary = true;
+            } else {
+                try (ShareFileReader reader = ShareFileReader.open(file)) {
+                    reader.read(this);
+                }
+            }
+        }
+
+        @Override
+        public void keys(int n, int k) {
+            this.n = n;
+            this.k = k;
+            if (canonical != null) {
+                canonical.keys(n, k);
+            }
+        }
+
+        @Override
+        public void prime(long p) {
+            this.prime = p;
+            if (canonical != null) {
+                canonical.prime(p);
+            }
+        }
+
+        @Override
+        public void point(HashiraSecretSharing.PointData point) {
+            if (canonical != null) {
+                canonical.point(point);
+            }
+            store.add(point);
+        }
+    }
+}
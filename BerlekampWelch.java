@@ -0,0 +1,255 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Reed-Solomon decoding of Shamir shares with the Berlekamp-Welch algorithm.
+ *
+ * With n shares of a degree k-1 polynomial, up to e = (n - k) / 2 corrupt
+ * shares can be located in polynomial time instead of trying C(n, k)
+ * subsets. The error locator is solved for modulo a word-size prime:
+ * solve Q(x_i) = y_i E(x_i) for monic E of degree e and Q of degree below
+ * k + e, then P = Q / E. Shares where P disagrees with y are corrupt. The
+ * secret is then rebuilt exactly over the integers from the good shares,
+ * which are also checked exactly, so a false agreement modulo p (chance
+ * about 2^-61 per share) can never produce a wrong answer.
+ */
+public class BerlekampWelch {
+
+    /**
+     * Decoded secret and the x-coordinates of the shares that were corrected.
+     */
+    public static class Result {
+        public final BigInteger secret;
+        public final long[] corruptXs;
+
+        Result(BigInteger secret, long[] corruptXs) {
+            this.secret = secret;
+            this.corruptXs = corruptXs;
+        }
+    }
+
+    private final PrimeField field;
+
+    public BerlekampWelch() {
+        this(PrimeField.of(PrimeField.MERSENNE_61));
+    }
+
+    public BerlekampWelch(PrimeField field) {
+        this.field = field;
+    }
+
+    /**
+     * Largest number of corrupt shares that can be corrected.
+     */
+    public static int correctable(int n, int k) {
+        return Math.max(0, (n - k) / 2);
+    }
+
+    /**
+     * Recover f(0) from n shares of a degree k-1 polynomial, at most
+     * (n - k) / 2 of which may be wrong.
+     *
+     * @throws IllegalArgumentException if more shares are corrupt than can be
+     *         corrected, or the shares are degenerate (such as repeated x)
+     */
+    public Result decode(long[] xs, BigInteger[] ys, int k) {
+        int n = xs.length;
+        if (k < 1 || n < k) {
+            throw new IllegalArgumentException("Need at least k = " + k + " shares, got " + n);
+        }
+        try {
+            return decode(xs, ys, k, correctable(n, k));
+        } catch (ArithmeticException ex) {
+            // a zero divisor in the field or in the exact rebuild
+            throw new IllegalArgumentException("Shares cannot be decoded: " + ex.getMessage(), ex);
+        }
+    }
+
+    private Result decode(long[] xs, BigInteger[] ys, int k, int e) {
+        int n = xs.length;
+
+        long[] ym = new long[n];
+        for (int i = 0; i < n; i++) {
+            ym[i] = field.encode(ys[i]);
+        }
+        long[] p = messagePolynomial(xs, ym, k, e);
+
+        boolean[] corrupt = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            corrupt[i] = evaluate(p, field.encode(xs[i])) != ym[i];
+        }
+
+        // Rebuild exactly from k good shares and confirm the rest of them exactly
+        int[] good = indices(corrupt, false);
+        if (good.length < k) {
+            throw tooManyErrors(e);
+        }
+        long[] goodXs = new long[good.length];
+        BigInteger[] goodYs = new BigInteger[good.length];
+        for (int i = 0; i < good.length; i++) {
+            goodXs[i] = xs[good[i]];
+            goodYs[i] = ys[good[i]];
+        }
+        long[] basisXs = Arrays.copyOf(goodXs, k);
+        BigInteger[] basisYs = Arrays.copyOf(goodYs, k);
+        NewtonPolynomial exact = new NewtonPolynomial(basisXs, basisYs);
+        for (int i = k; i < good.length; i++) {
+            if (!exact.passesThrough(goodXs[i], goodYs[i])) {
+                corrupt[good[i]] = true;
+            }
+        }
+
+        int[] bad = indices(corrupt, true);
+        if (bad.length > e) {
+            throw tooManyErrors(e);
+        }
+        long[] corruptXs = new long[bad.length];
+        for (int i = 0; i < bad.length; i++) {
+            corruptXs[i] = xs[bad[i]];
+        }
+        return new Result(EngineSelector.shared().constantTerm(basisXs, basisYs), corruptXs);
+    }
+
+    /**
+     * Solve the key equation and return P = Q / E, lowest degree first.
+     */
+    private long[] messagePolynomial(long[] xs, long[] ys, int k, int e) {
+        int n = xs.length;
+        int unknowns = k + 2 * e;
+        long[][] rows = new long[n][unknowns + 1];
+
+        // Unknowns: q_0..q_{k+e-1}, then e_0..e_{e-1}; E is monic of degree e
+        for (int i = 0; i < n; i++) {
+            long x = field.encode(xs[i]);
+            long[] row = rows[i];
+            long power = field.one();
+            for (int j = 0; j < k + e; j++) {
+                row[j] = power;
+                if (j < e) {
+                    row[k + e + j] = field.neg(field.mul(ys[i], power));
+                }
+                if (j == e) {
+                    row[unknowns] = field.mul(ys[i], power);
+                }
+                power = field.mul(power, x);
+            }
+        }
+
+        long[] solution = solve(rows, unknowns);
+        if (solution == null) {
+            throw tooManyErrors(e);
+        }
+
+        long[] q = Arrays.copyOf(solution, k + e);
+        long[] locator = new long[e + 1];
+        System.arraycopy(solution, k + e, locator, 0, e);
+        locator[e] = field.one();
+        return divideExact(q, locator, e);
+    }
+
+    /**
+     * Gaussian elimination on an augmented matrix; free variables are set to zero.
+     * Returns null if the system is inconsistent.
+     */
+    private long[] solve(long[][] rows, int unknowns) {
+        int n = rows.length;
+        int[] pivotColumn = new int[n];
+        int rank = 0;
+        for (int col = 0; col < unknowns && rank < n; col++) {
+            int pivot = -1;
+            for (int r = rank; r < n; r++) {
+                if (rows[r][col] != 0) {
+                    pivot = r;
+                    break;
+                }
+            }
+            if (pivot < 0) {
+                continue;
+            }
+            long[] tmp = rows[pivot];
+            rows[pivot] = rows[rank];
+            rows[rank] = tmp;
+
+            long[] pr = rows[rank];
+            long inv = field.inverse(pr[col]);
+            for (int c = col; c <= unknowns; c++) {
+                pr[c] = field.mul(pr[c], inv);
+            }
+            for (int r = 0; r < n; r++) {
+                long factor = rows[r][col];
+                if (r == rank || factor == 0) {
+                    continue;
+                }
+                long[] row = rows[r];
+                for (int c = col; c <= unknowns; c++) {
+                    row[c] = field.sub(row[c], field.mul(factor, pr[c]));
+                }
+            }
+            pivotColumn[rank++] = col;
+        }
+
+        for (int r = rank; r < n; r++) {
+            if (rows[r][unknowns] != 0) {
+                return null;
+            }
+        }
+        long[] solution = new long[unknowns];
+        for (int r = 0; r < rank; r++) {
+            solution[pivotColumn[r]] = rows[r][unknowns];
+        }
+        return solution;
+    }
+
+    /**
+     * Q / E for monic E of degree e, or an error if the division leaves a remainder.
+     */
+    private long[] divideExact(long[] q, long[] locator, int e) {
+        long[] remainder = q.clone();
+        long[] quotient = new long[q.length - e];
+        for (int i = quotient.length - 1; i >= 0; i--) {
+            long lead = remainder[i + e];
+            quotient[i] = lead;
+            if (lead != 0) {
+                for (int j = 0; j <= e; j++) {
+                    remainder[i + j] = field.sub(remainder[i + j], field.mul(lead, locator[j]));
+                }
+            }
+        }
+        for (int i = 0; i < e; i++) {
+            if (remainder[i] != 0) {
+                throw tooManyErrors(e);
+            }
+        }
+        return quotient;
+    }
+
+    private long evaluate(long[] poly, long x) {
+        long result = 0;
+        for (int i = poly.length - 1; i >= 0; i--) {
+            result = field.add(field.mul(result, x), poly[i]);
+        }
+        return result;
+    }
+
+    private static int[] indices(boolean[] flags, boolean value) {
+        int count = 0;
+        for (boolean f : flags) {
+            if (f == value) {
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        int next = 0;
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i] == value) {
+                result[next++] = i;
+            }
+        }
+        return result;
+    }
+
+    private static IllegalArgumentException tooManyErrors(int e) {
+        return new IllegalArgumentException("Shares cannot be decoded: more than " + e
+            + " of them are corrupt");
+    }
+}
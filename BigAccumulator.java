@@ -0,0 +1,478 @@
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * A mutable signed multi-precision integer for inner loops that would
+ * otherwise allocate a BigInteger per step.
+ *
+ * The value is a sign and a little-endian magnitude of 64-bit limbs.
+ * Multiplying by a long, adding, and multiply-accumulating all work in
+ * place, in buffers that only grow. Constants used on every pass, such as
+ * Newton or Lagrange coefficients, are converted to {@link Limbs} once, so
+ * a loop over them touches no BigInteger at all. Only
+ * {@link #toBigInteger} allocates.
+ *
+ * Instances are borrowed from a small per-thread pool and returned on
+ * close:
+ *
+ * <pre>
+ * try (BigAccumulator acc = BigAccumulator.borrow()) {
+ *     ...
+ *     return acc.toBigInteger();
+ * }
+ * </pre>
+ *
+ * An accumulator must be closed on the thread that borrowed it. It is not
+ * safe for concurrent use.
+ */
+public final class BigAccumulator implements AutoCloseable {
+
+    /** Accumulators kept per thread */
+    private static final int POOL_SIZE = 8;
+
+    /** Accumulators that grew past this many limbs are dropped rather than pooled */
+    private static final int MAX_POOLED_LIMBS = 1 << 15;
+
+    private static final ThreadLocal<ArrayDeque<BigAccumulator>> POOL =
+        ThreadLocal.withInitial(() -> new ArrayDeque<>(POOL_SIZE));
+
+    private long[] mag = new long[8];
+    private int len;
+    private boolean negative;
+
+    /**
+     * Products of the opposite sign, accumulated apart and subtracted once
+     * (see {@link #settle}); the value is the sign applied to mag - debt.
+     */
+    private long[] debt = new long[8];
+    private int debtLen;
+
+    /** The limbs of BigInteger operands */
+    private long[] left = new long[8];
+    private long[] right = new long[8];
+    private int leftLen;
+    private int rightLen;
+    private boolean leftNegative;
+    private boolean rightNegative;
+
+    /**
+     * A constant in limb form, converted once and read on every pass.
+     */
+    public static final class Limbs {
+        final long[] mag;
+        final boolean negative;
+
+        private Limbs(long[] mag, boolean negative) {
+            this.mag = mag;
+            this.negative = negative;
+        }
+
+        public static Limbs of(BigInteger value) {
+            long[] mag = new long[limbsFor(value)];
+            int len = toLimbs(value, mag);
+            return new Limbs(Arrays.copyOf(mag, len), value.signum() < 0);
+        }
+
+        public static Limbs[] of(BigInteger[] values) {
+            Limbs[] limbs = new Limbs[values.length];
+            for (int i = 0; i < values.length; i++) {
+                limbs[i] = of(values[i]);
+            }
+            return limbs;
+        }
+    }
+
+    /**
+     * An accumulator from this thread's pool, set to zero.
+     */
+    public static BigAccumulator borrow() {
+        BigAccumulator acc = POOL.get().pollFirst();
+        if (acc == null) {
+            acc = new BigAccumulator();
+        }
+        return acc.setZero();
+    }
+
+    /** Return this accumulator to the pool of the current thread. */
+    @Override
+    public void close() {
+        ArrayDeque<BigAccumulator> pool = POOL.get();
+        if (pool.size() < POOL_SIZE && mag.length <= MAX_POOLED_LIMBS && debt.length <= MAX_POOLED_LIMBS) {
+            pool.addFirst(this);
+        }
+    }
+
+    public BigAccumulator setZero() {
+        len = 0;
+        debtLen = 0;
+        negative = false;
+        return this;
+    }
+
+    public BigAccumulator set(Limbs value) {
+        mag = ensure(mag, value.mag.length);
+        System.arraycopy(value.mag, 0, mag, 0, value.mag.length);
+        len = value.mag.length;
+        debtLen = 0;
+        negative = value.negative && len > 0;
+        return this;
+    }
+
+    public BigAccumulator set(BigInteger value) {
+        loadLeft(value);
+        mag = ensure(mag, leftLen);
+        System.arraycopy(left, 0, mag, 0, leftLen);
+        len = leftLen;
+        debtLen = 0;
+        negative = leftNegative;
+        return this;
+    }
+
+    public int signum() {
+        settle();
+        return len == 0 ? 0 : negative ? -1 : 1;
+    }
+
+    /**
+     * this *= m, in place.
+     */
+    public BigAccumulator multiply(long m) {
+        settle();
+        if (m == 0 || len == 0) {
+            return setZero();
+        }
+        if (m < 0) {
+            negative = !negative;
+        }
+        // |m| as an unsigned long, so Long.MIN_VALUE needs no special case
+        long abs = m < 0 ? -m : m;
+        long carry = 0;
+        for (int i = 0; i < len; i++) {
+            long a = mag[i];
+            long product = a * abs;
+            long lo = product + carry;
+            carry = unsignedMultiplyHigh(a, abs) + carryOut(product, carry, lo);
+            mag[i] = lo;
+        }
+        if (carry != 0) {
+            mag = ensure(mag, len + 1);
+            mag[len++] = carry;
+        }
+        return this;
+    }
+
+    /** this += value */
+    public BigAccumulator add(Limbs value) {
+        settle();
+        addSigned(value.mag, value.mag.length, value.negative);
+        return this;
+    }
+
+    /** this += value */
+    public BigAccumulator add(BigInteger value) {
+        settle();
+        loadLeft(value);
+        addSigned(left, leftLen, leftNegative);
+        return this;
+    }
+
+    /** this += value */
+    public BigAccumulator add(long value) {
+        if (value == 0) {
+            return this;
+        }
+        settle();
+        left[0] = value < 0 ? -value : value;
+        addSigned(left, 1, value < 0);
+        return this;
+    }
+
+    /** this += a * b */
+    public BigAccumulator addProduct(Limbs a, BigInteger b) {
+        loadRight(b);
+        addProduct(a.mag, a.mag.length, a.negative, right, rightLen, rightNegative);
+        return this;
+    }
+
+    /** this += a * b */
+    public BigAccumulator addProduct(BigInteger a, BigInteger b) {
+        loadLeft(a);
+        loadRight(b);
+        addProduct(left, leftLen, leftNegative, right, rightLen, rightNegative);
+        return this;
+    }
+
+    public BigInteger toBigInteger() {
+        settle();
+        if (len == 0) {
+            return BigInteger.ZERO;
+        }
+        byte[] bytes = new byte[len * Long.BYTES];
+        for (int i = 0; i < len; i++) {
+            long limb = mag[i];
+            int at = bytes.length - Long.BYTES * (i + 1);
+            for (int b = Long.BYTES - 1; b >= 0; b--) {
+                bytes[at + b] = (byte) limb;
+                limb >>>= 8;
+            }
+        }
+        return new BigInteger(negative ? -1 : 1, bytes);
+    }
+
+    @Override
+    public String toString() {
+        return toBigInteger().toString();
+    }
+
+    /**
+     * Products with the accumulator's sign are added straight into mag, the
+     * others straight into debt, so a dot product of mixed signs makes no
+     * comparison or subtraction per term.
+     */
+    private void addProduct(long[] a, int aLen, boolean aNegative, long[] b, int bLen, boolean bNegative) {
+        if (aLen == 0 || bLen == 0) {
+            return;
+        }
+        if (aLen < bLen) {
+            long[] t = a;
+            a = b;
+            b = t;
+            int n = aLen;
+            aLen = bLen;
+            bLen = n;
+        }
+        boolean productNegative = aNegative != bNegative;
+        if (len == 0 && debtLen == 0) {
+            negative = productNegative;
+        }
+        if (productNegative == negative) {
+            int n = Math.max(len, aLen + bLen) + 1;
+            mag = ensure(mag, n);
+            len = accumulate(mag, len, n, a, aLen, b, bLen);
+        } else {
+            int n = Math.max(debtLen, aLen + bLen) + 1;
+            debt = ensure(debt, n);
+            debtLen = accumulate(debt, debtLen, n, a, aLen, b, bLen);
+        }
+    }
+
+    /**
+     * target += a * b, where target holds used limbs and has room for n;
+     * returns the limbs now used.
+     */
+    private static int accumulate(long[] target, int used, int n, long[] a, int aLen, long[] b, int bLen) {
+        Arrays.fill(target, used, n, 0);
+        for (int j = 0; j < bLen; j++) {
+            multiplyAdd(target, j, a, aLen, b[j]);
+        }
+        while (n > 0 && target[n - 1] == 0) {
+            n--;
+        }
+        return n;
+    }
+
+    /** Subtract the deferred opposite-sign products. */
+    private void settle() {
+        if (debtLen > 0) {
+            int n = debtLen;
+            debtLen = 0;
+            addSigned(debt, n, !negative);
+        }
+    }
+
+    /**
+     * target[offset..] += source * m; target must have room for the carry
+     * out of the top limb.
+     */
+    private static void multiplyAdd(long[] target, int offset, long[] source, int sourceLen, long m) {
+        long carry = 0;
+        for (int i = 0; i < sourceLen; i++) {
+            long a = source[i];
+            long t = target[offset + i];
+            long product = a * m;
+            long lo = product + carry;
+            long hi = unsignedMultiplyHigh(a, m) + carryOut(product, carry, lo);
+            long sum = lo + t;
+            target[offset + i] = sum;
+            carry = hi + carryOut(lo, t, sum);
+        }
+        for (int i = offset + sourceLen; carry != 0; i++) {
+            long t = target[i];
+            long sum = t + carry;
+            target[i] = sum;
+            carry = carryOut(t, carry, sum);
+        }
+    }
+
+    /** this += (bNegative ? -1 : 1) * b */
+    private void addSigned(long[] b, int bLen, boolean bNegative) {
+        if (bLen == 0) {
+            return;
+        }
+        if (len == 0) {
+            mag = ensure(mag, bLen);
+            System.arraycopy(b, 0, mag, 0, bLen);
+            len = bLen;
+            negative = bNegative;
+            return;
+        }
+        if (negative == bNegative) {
+            addMagnitude(b, bLen);
+            return;
+        }
+        int cmp = compareMagnitude(b, bLen);
+        if (cmp == 0) {
+            setZero();
+        } else if (cmp > 0) {
+            subtractMagnitude(b, bLen);
+        } else {
+            subtractFromMagnitude(b, bLen);
+            negative = bNegative;
+        }
+    }
+
+    private void addMagnitude(long[] b, int bLen) {
+        int n = Math.max(len, bLen);
+        mag = ensure(mag, n + 1);
+        Arrays.fill(mag, len, n + 1, 0);
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+            long a = mag[i];
+            long b1 = i < bLen ? b[i] : 0;
+            long s = a + b1;
+            long s2 = s + carry;
+            mag[i] = s2;
+            carry = carryOut(a, b1, s) + carryOut(s, carry, s2);
+        }
+        mag[n] = carry;
+        len = carry != 0 ? n + 1 : n;
+    }
+
+    /** |this| -= |b|, given |this| > |b| */
+    private void subtractMagnitude(long[] b, int bLen) {
+        long borrow = 0;
+        for (int i = 0; i < len; i++) {
+            long a = mag[i];
+            long s = i < bLen ? b[i] : 0;
+            long d = a - s;
+            long d2 = d - borrow;
+            mag[i] = d2;
+            borrow = borrowOut(a, s, d) + borrowOut(d, borrow, d2);
+        }
+        normalize();
+    }
+
+    /** |this| = |b| - |this|, given |b| > |this| */
+    private void subtractFromMagnitude(long[] b, int bLen) {
+        mag = ensure(mag, bLen);
+        long borrow = 0;
+        for (int i = 0; i < bLen; i++) {
+            long a = b[i];
+            long s = i < len ? mag[i] : 0;
+            long d = a - s;
+            long d2 = d - borrow;
+            mag[i] = d2;
+            borrow = borrowOut(a, s, d) + borrowOut(d, borrow, d2);
+        }
+        len = bLen;
+        normalize();
+    }
+
+    private int compareMagnitude(long[] b, int bLen) {
+        if (len != bLen) {
+            return len > bLen ? 1 : -1;
+        }
+        for (int i = len - 1; i >= 0; i--) {
+            if (mag[i] != b[i]) {
+                return Long.compareUnsigned(mag[i], b[i]);
+            }
+        }
+        return 0;
+    }
+
+    private void normalize() {
+        while (len > 0 && mag[len - 1] == 0) {
+            len--;
+        }
+        if (len == 0) {
+            negative = false;
+        }
+    }
+
+    private void loadLeft(BigInteger value) {
+        left = ensure(left, limbsFor(value));
+        leftLen = toLimbs(value, left);
+        leftNegative = value.signum() < 0;
+    }
+
+    private void loadRight(BigInteger value) {
+        right = ensure(right, limbsFor(value));
+        rightLen = toLimbs(value, right);
+        rightNegative = value.signum() < 0;
+    }
+
+    /** Limbs enough for |value|, or for its two's complement bytes. */
+    private static int limbsFor(BigInteger value) {
+        return value.bitLength() / Long.SIZE + 1;
+    }
+
+    /**
+     * |value| into limbs; returns the number used. Values that fit in a long
+     * are read without allocating.
+     */
+    private static int toLimbs(BigInteger value, long[] limbs) {
+        if (value.bitLength() < Long.SIZE) {
+            long v = value.longValue();
+            limbs[0] = v < 0 ? -v : v;
+            return v != 0 ? 1 : 0;
+        }
+        // Two's complement limbs, negated in place for negative values, so no abs() copy
+        byte[] bytes = value.toByteArray();
+        boolean negative = value.signum() < 0;
+        int n = 0;
+        for (int end = bytes.length; end > 0; end -= Long.BYTES) {
+            int from = Math.max(0, end - Long.BYTES);
+            long limb = negative && end - from < Long.BYTES ? -1L : 0;
+            for (int b = from; b < end; b++) {
+                limb = limb << 8 | (bytes[b] & 0xFF);
+            }
+            limbs[n++] = limb;
+        }
+        if (negative) {
+            long carry = 1;
+            for (int i = 0; i < n; i++) {
+                long v = ~limbs[i] + carry;
+                carry = carry != 0 && v == 0 ? 1 : 0;
+                limbs[i] = v;
+            }
+        }
+        while (n > 0 && limbs[n - 1] == 0) {
+            n--;
+        }
+        return n;
+    }
+
+    /**
+     * The carry out of sum = a + b, as 0 or 1. Computed from the sign bits
+     * rather than a comparison: carries on random limbs are unpredictable,
+     * and a branch per limb costs more than the arithmetic.
+     */
+    private static long carryOut(long a, long b, long sum) {
+        return ((a & b) | ((a | b) & ~sum)) >>> 63;
+    }
+
+    /** The borrow out of difference = a - b, as 0 or 1. */
+    private static long borrowOut(long a, long b, long difference) {
+        return ((~a & b) | ((~a | b) & difference)) >>> 63;
+    }
+
+    /** High 64 bits of the unsigned 128-bit product a * b. */
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    private static long[] ensure(long[] limbs, int size) {
+        return limbs.length >= size ? limbs : Arrays.copyOf(limbs, Math.max(size, limbs.length * 2));
+    }
+}
@@ -0,0 +1,306 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary share files, read through a memory mapping.
+ *
+ * Layout (big-endian):
+ *
+ * <pre>
+ * header   "HSSB" version(1) reserved(3) n(4) k(4) prime(8) count(4)
+ * points   x(8) header(4) magnitude(bytes)     repeated count times
+ * </pre>
+ *
+ * prime is 0 for shares over the integers. The point header holds the
+ * magnitude length shifted left once, with the sign in the low bit. y is
+ * stored as its magnitude in unsigned big-endian bytes, never as digit
+ * strings, so loading needs no base conversion. x-coordinates are read
+ * straight out of the mapping. In a field, {@link #residue} reduces y from
+ * the mapped bytes without building a BigInteger.
+ */
+public class BinaryShareFile {
+
+    /** File name suffix for binary share files. */
+    public static final String EXTENSION = ".hss";
+
+    private static final int MAGIC = 0x48535342;
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 28;
+    private static final int COUNT_OFFSET = 24;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer data;
+    private final int n;
+    private final int k;
+    private final long prime;
+    private final int[] offsets;
+
+    private BinaryShareFile(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary share file");
+        }
+        if (data.get(4) != VERSION) {
+            throw new IOException("Unsupported binary share file version " + data.get(4));
+        }
+        this.n = data.getInt(8);
+        this.k = data.getInt(12);
+        this.prime = data.getLong(16);
+        int limit = data.limit();
+        int count = data.getInt(COUNT_OFFSET);
+        if (count < 0 || count > (limit - HEADER_SIZE) / 12) {
+            throw new IOException("Corrupt point count " + count);
+        }
+
+        // Only the length prefixes are touched to index the records; a long
+        // offset cannot overflow on a corrupt length
+        this.offsets = new int[count];
+        long offset = HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            if (offset > limit - 12) {
+                throw new IOException("Truncated at point " + i);
+            }
+            offsets[i] = (int) offset;
+            int length = data.getInt((int) offset + 8) >>> 1;
+            offset += 12;
+            if (length > limit - offset) {
+                throw new IOException("Corrupt length " + length + " at point " + i);
+            }
+            offset += length;
+        }
+    }
+
+    /**
+     * Map the file read-only. Files must be under 2 GiB.
+     */
+    public static BinaryShareFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to map (" + channel.size() + " bytes)");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinaryShareFile(mapped);
+        }
+    }
+
+    public static boolean matches(Path path) {
+        return path.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    public int n() {
+        return n;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    /** Field prime the shares were generated over, or 0 for integer shares. */
+    public long prime() {
+        return prime;
+    }
+
+    /** Number of points stored. */
+    public int size() {
+        return offsets.length;
+    }
+
+    public long x(int i) {
+        return data.getLong(offsets[i]);
+    }
+
+    public BigInteger y(int i) {
+        int offset = offsets[i];
+        int header = data.getInt(offset + 8);
+        byte[] magnitude = new byte[header >>> 1];
+        data.get(offset + 12, magnitude);
+        return new BigInteger((header & 1) != 0 ? -1 : 1, magnitude);
+    }
+
+    /**
+     * y mod p, read directly from the mapped bytes four at a time.
+     */
+    public long residue(int i, PrimeField field) {
+        return residue(data, offsets[i] + 8, field);
+    }
+
+    /**
+     * y mod p for the record whose header int is at offset in data.
+     */
+    static long residue(ByteBuffer data, int offset, PrimeField field) {
+        int header = data.getInt(offset);
+        int length = header >>> 1;
+        int position = offset + 4;
+        int end = position + length;
+
+        long result = 0;
+        int head = length % 4;
+        if (head > 0) {
+            long word = 0;
+            for (int j = 0; j < head; j++) {
+                word = (word << 8) | (data.get(position++) & 0xFF);
+            }
+            result = field.encode(word);
+        }
+        long radix = field.encode(1L << 32);
+        for (; position < end; position += 4) {
+            result = field.add(field.mul(result, radix), field.encode(data.getInt(position) & 0xFFFFFFFFL));
+        }
+        if ((header & 1) != 0) {
+            result = field.neg(result);
+        }
+        return field.decode(result);
+    }
+
+    /**
+     * The points as a read-only {@link ShareStore} over the mapping, without copying y.
+     */
+    public ShareStore store() {
+        int[] headers = new int[offsets.length];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = offsets[i] + 8;
+        }
+        return new ShareStore(xs(), headers, data);
+    }
+
+    public long[] xs() {
+        long[] xs = new long[size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = x(i);
+        }
+        return xs;
+    }
+
+    public BigInteger[] ys() {
+        BigInteger[] ys = new BigInteger[size()];
+        for (int i = 0; i < ys.length; i++) {
+            ys[i] = y(i);
+        }
+        return ys;
+    }
+
+    /**
+     * Streams points into a binary share file. The header is patched in on
+     * close, so keys may arrive before or after the points. As a reader
+     * listener it converts each JSON point straight from its digit string.
+     */
+    public static class Writer implements ShareFileReader.Listener, AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private int n;
+        private int k;
+        private long prime;
+        private int count;
+
+        public Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                                            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.position(HEADER_SIZE);
+        }
+
+        @Override
+        public void keys(int n, int k) {
+            this.n = n;
+            this.k = k;
+        }
+
+        @Override
+        public void prime(long p) {
+            this.prime = p;
+        }
+
+        @Override
+        public void point(HashiraSecretSharing.PointData point) {
+            try {
+                point(point.x, BaseConverter.toBigInteger(point.value, point.base));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public void point(long x, BigInteger y) throws IOException {
+            byte[] magnitude = y.abs().toByteArray();
+            int skip = magnitude[0] == 0 ? 1 : 0;
+            int length = magnitude.length - skip;
+            ByteBuffer target = buffer;
+            if (buffer.remaining() < 12 + length) {
+                flush();
+                if (buffer.remaining() < 12 + length) {
+                    target = ByteBuffer.allocate(12 + length);
+                }
+            }
+            target.putLong(x).putInt(length << 1 | (y.signum() < 0 ? 1 : 0)).put(magnitude, skip, length);
+            if (target != buffer) {
+                write(target);
+            }
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).put(VERSION).put(new byte[3]).putInt(n).putInt(k).putLong(prime).putInt(count);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void flush() throws IOException {
+            write(buffer);
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer bytes) throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Convert a JSON share file to the binary format in one streaming pass;
+     * returns the number of points written.
+     */
+    public static int convert(Path json, Path binary) throws IOException {
+        try (ShareFileReader reader = ShareFileReader.open(json);
+             Writer writer = new Writer(binary)) {
+            reader.read(writer);
+            return writer.count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Usage: java BinaryShareFile file.json...   (writes file.hss next to each)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java BinaryShareFile file.json...");
+            System.exit(2);
+        }
+        for (String arg : args) {
+            Path json = Paths.get(arg);
+            String name = json.getFileName().toString();
+            String base = name.endsWith(".json") ? name.substring(0, name.length() - 5) : name;
+            Path binary = json.resolveSibling(base + EXTENSION);
+            int points = convert(json, binary);
+            System.out.println(json + " -> " + binary + " (" + points + " points)");
+        }
+    }
+}
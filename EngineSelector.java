@@ -0,0 +1,382 @@
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Picks a {@link ReconstructionEngine} for each problem.
+ *
+ * <ul>
+ * <li>long: overflow-checked long arithmetic for small k and small y; falls
+ *     back to exact as soon as anything overflows.</li>
+ * <li>exact: BigInteger barycentric weights from the shared
+ *     {@link LagrangeCache}; O(k) when the x-set has been seen before.</li>
+ * <li>modular: CRT over word-size primes on the calling thread.</li>
+ * <li>parallel: the same, one prime per fork-join task.</li>
+ * </ul>
+ *
+ * The exact/modular crossover depends on both k and the y bit length, and
+ * on the machine. It is measured by a short self-benchmark of the modular
+ * engine this selector returns, run on the first problem large enough to
+ * need it, so runs that never see one never pay for it. Callers that are
+ * about to load every core should call {@link #calibrate()} first, so the
+ * measurement is not disturbed by their own work. Setting
+ * hashira.engine.modularFromK skips the benchmark.
+ *
+ * The shared selector returns the parallel engine on a multi-core machine.
+ * Callers that already run one problem per core, such as batch workers,
+ * use {@link #serial()}, which never fans out onto the common pool.
+ *
+ * Only reconstructions over the integers come here. Over GF(p) every path
+ * uses word-sized field weights ({@link FieldLagrange}, or the service's
+ * own field basis), whose cost does not depend on y size, so there is no
+ * engine choice for the field to affect.
+ */
+public class EngineSelector {
+
+    public static final ReconstructionEngine LONG = new LongEngine();
+    public static final ReconstructionEngine EXACT = new Engine("exact") {
+        @Override
+        public BigInteger constantTerm(long[] xs, BigInteger[] ys) {
+            return LagrangeCache.shared().constantTerm(xs, ys);
+        }
+    };
+    public static final ReconstructionEngine MODULAR = new Engine("modular") {
+        private final MultimodularReconstructor reconstructor = new MultimodularReconstructor(null);
+
+        @Override
+        public BigInteger constantTerm(long[] xs, BigInteger[] ys) {
+            return reconstructor.constantTerm(xs, ys);
+        }
+
+        @Override
+        public BigInteger constantTerm(ShareStore shares, int k) {
+            return reconstructor.constantTerm(shares, k);
+        }
+    };
+    public static final ReconstructionEngine PARALLEL = new Engine("parallel") {
+        private final MultimodularReconstructor reconstructor =
+            new MultimodularReconstructor(ForkJoinPool.commonPool());
+
+        @Override
+        public BigInteger constantTerm(long[] xs, BigInteger[] ys) {
+            return reconstructor.constantTerm(xs, ys);
+        }
+
+        @Override
+        public BigInteger constantTerm(ShareStore shares, int k) {
+            return reconstructor.constantTerm(shares, k);
+        }
+    };
+
+    private static final ReconstructionEngine[] ENGINES = { LONG, EXACT, MODULAR, PARALLEL };
+
+    /** Largest k tried in long arithmetic; beyond it the products overflow anyway. */
+    static final int LONG_MAX_K = 16;
+
+    /** Below this k the exact engine always wins, whatever the calibration says. */
+    static final int CALIBRATION_MIN_K = 128;
+
+    /** Bit lengths of y the crossover is measured at; others are interpolated on log2(bits). */
+    private static final int SMALL_Y_BITS = 64;
+    private static final int LARGE_Y_BITS = 1024;
+
+    private static final int[] CALIBRATION_KS = { 128, 256 };
+
+    /**
+     * Upper limit on the crossover: from FastInterpolator.MIN_POINTS up the
+     * modular engine is subquadratic, so it always wins soon after.
+     */
+    private static final int MAX_CROSSOVER = 2 * FastInterpolator.MIN_POINTS;
+
+    /** Small problems run first so both engines are compiled before anything is timed. */
+    private static final int WARM_UP_K = 32;
+    private static final int WARM_UP_ROUNDS = 20;
+
+    private static final int FIXED_CROSSOVER = Integer.getInteger("hashira.engine.modularFromK", 0);
+    private static final EngineSelector SHARED = new EngineSelector(FIXED_CROSSOVER, true);
+    private static final EngineSelector SERIAL = new EngineSelector(FIXED_CROSSOVER, false);
+
+    private final ReconstructionEngine modular;
+    private final int processors = Runtime.getRuntime().availableProcessors();
+    private volatile int[] crossover;
+
+    /**
+     * Selector with a fixed exact/modular crossover k, or 0 to measure it
+     * when first needed.
+     */
+    public EngineSelector(int modularFromK) {
+        this(modularFromK, true);
+    }
+
+    /**
+     * As above; with parallel false the modular engine always runs on the
+     * calling thread.
+     */
+    public EngineSelector(int modularFromK, boolean parallel) {
+        this.modular = parallel && processors > 1 ? PARALLEL : MODULAR;
+        if (modularFromK > 0) {
+            this.crossover = new int[] { modularFromK, modularFromK };
+        }
+    }
+
+    /** Selector for callers with no parallelism of their own. */
+    public static EngineSelector shared() {
+        return SHARED;
+    }
+
+    /** Selector for callers that already keep every core busy. */
+    public static EngineSelector serial() {
+        return SERIAL;
+    }
+
+    /**
+     * Engine by name, for --engine.
+     */
+    public static ReconstructionEngine engine(String name) {
+        for (ReconstructionEngine engine : ENGINES) {
+            if (engine.name().equals(name)) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("Unknown engine '" + name + "'; expected long, exact, modular or parallel");
+    }
+
+    /**
+     * The engine expected to be fastest for these shares, over the integers.
+     */
+    public ReconstructionEngine select(long[] xs, BigInteger[] ys) {
+        int maxYBits = 0;
+        for (BigInteger y : ys) {
+            maxYBits = Math.max(maxYBits, y.bitLength());
+        }
+        return select(xs, maxYBits);
+    }
+
+    /**
+     * The engine expected to be fastest for y-values of up to maxYBits bits.
+     */
+    public ReconstructionEngine select(long[] xs, int maxYBits) {
+        int k = xs.length;
+        if (k <= LONG_MAX_K && maxYBits < Long.SIZE - 1) {
+            return LONG;
+        }
+        if (k < CALIBRATION_MIN_K || LagrangeCache.shared().contains(xs) || k < modularFromK(maxYBits)) {
+            return EXACT;
+        }
+        return modular;
+    }
+
+    /**
+     * The engine expected to be fastest for y-values that all fit in a long.
+     */
+    public ReconstructionEngine select(long[] xs, long[] ys) {
+        int k = xs.length;
+        if (k <= LONG_MAX_K) {
+            return LONG;
+        }
+        if (k < CALIBRATION_MIN_K || LagrangeCache.shared().contains(xs) || k < modularFromK(Long.SIZE)) {
+            return EXACT;
+        }
+        return modular;
+    }
+
+    /**
+     * f(0) with the selected engine.
+     */
+    public BigInteger constantTerm(long[] xs, BigInteger[] ys) {
+        return select(xs, ys).constantTerm(xs, ys);
+    }
+
+    /**
+     * f(0) through the first k points of a store, with the engine selected for them.
+     */
+    public BigInteger constantTerm(ShareStore shares, int k) {
+        long[] xs = shares.xs(k);
+        long[] ys = shares.longYs(k);
+        ReconstructionEngine engine = ys != null ? select(xs, ys) : select(xs, shares.maxBitLength(k));
+        return engine.constantTerm(shares, k);
+    }
+
+    /**
+     * Smallest k at which modular beats exact for y of the given size.
+     */
+    int modularFromK(int maxYBits) {
+        int[] measured = crossover();
+        double t = (log2(Math.max(maxYBits, SMALL_Y_BITS)) - log2(SMALL_Y_BITS))
+            / (log2(LARGE_Y_BITS) - log2(SMALL_Y_BITS));
+        t = Math.min(1, t);
+        return (int) Math.round(measured[0] + t * (measured[1] - measured[0]));
+    }
+
+    /**
+     * Measure the crossover now unless it is already known. Concurrent
+     * callers wait for the one measurement.
+     */
+    public void calibrate() {
+        crossover();
+    }
+
+    private int[] crossover() {
+        int[] measured = crossover;
+        if (measured == null) {
+            synchronized (this) {
+                measured = crossover;
+                if (measured == null) {
+                    try {
+                        measured = new int[] { calibrate(SMALL_Y_BITS), calibrate(LARGE_Y_BITS) };
+                    } catch (RuntimeException e) {
+                        // exact up to the point where modular is subquadratic
+                        measured = new int[] { MAX_CROSSOVER, MAX_CROSSOVER };
+                    }
+                    crossover = measured;
+                }
+            }
+        }
+        return measured;
+    }
+
+    @Override
+    public String toString() {
+        int[] measured = crossover;
+        return measured == null
+            ? "EngineSelector[" + modular + ", uncalibrated]"
+            : "EngineSelector[" + modular + " from k = " + measured[0] + " (" + SMALL_Y_BITS + "-bit y), "
+              + measured[1] + " (" + LARGE_Y_BITS + "-bit y), " + processors + " cores]";
+    }
+
+    /**
+     * Estimated smallest k where this selector's modular engine runs faster
+     * than exact on uncached weights. Both are timed at two sizes; if modular is still behind at
+     * the larger one, the crossover is extrapolated from the growth rate of
+     * each, since exact grows faster in k.
+     */
+    private int calibrate(int yBits) {
+        Random random = new Random(yBits);
+        long[] warmXs = sampleXs(WARM_UP_K);
+        BigInteger[] warmYs = sampleYs(WARM_UP_K, yBits, random);
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            time(() -> BarycentricWeights.constantTerm(warmXs, warmYs));
+            time(() -> modular.constantTerm(warmXs, warmYs));
+        }
+
+        double[] exact = new double[CALIBRATION_KS.length];
+        double[] multimodular = new double[CALIBRATION_KS.length];
+        for (int c = 0; c < CALIBRATION_KS.length; c++) {
+            int k = CALIBRATION_KS[c];
+            long[] xs = sampleXs(k);
+            BigInteger[] ys = sampleYs(k, yBits, random);
+            exact[c] = bestOf(() -> BarycentricWeights.constantTerm(xs, ys));
+            multimodular[c] = bestOf(() -> modular.constantTerm(xs, ys));
+            if (multimodular[c] < exact[c]) {
+                return k;
+            }
+        }
+
+        int last = CALIBRATION_KS.length - 1;
+        double octaves = log2((double) CALIBRATION_KS[last] / CALIBRATION_KS[last - 1]);
+        double exactGrowth = log2(exact[last] / exact[last - 1]) / octaves;
+        double modularGrowth = log2(multimodular[last] / multimodular[last - 1]) / octaves;
+        if (exactGrowth <= modularGrowth) {
+            return MAX_CROSSOVER;
+        }
+        double k = CALIBRATION_KS[last]
+            * Math.pow(multimodular[last] / exact[last], 1 / (exactGrowth - modularGrowth));
+        return (int) Math.min(MAX_CROSSOVER, Math.ceil(k));
+    }
+
+    /** Best of three timed runs, in nanoseconds. */
+    private static double bestOf(Runnable reconstruction) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            time(reconstruction);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static long[] sampleXs(int k) {
+        long[] xs = new long[k];
+        for (int i = 0; i < k; i++) {
+            xs[i] = i + 1;
+        }
+        return xs;
+    }
+
+    private static BigInteger[] sampleYs(int k, int bits, Random random) {
+        BigInteger[] ys = new BigInteger[k];
+        for (int i = 0; i < k; i++) {
+            ys[i] = new BigInteger(bits, random);
+        }
+        return ys;
+    }
+
+    /** Run a reconstruction for timing; random shares need not give an integer f(0). */
+    private static void time(Runnable reconstruction) {
+        try {
+            reconstruction.run();
+        } catch (ArithmeticException e) {
+            // same cost either way
+        }
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    private abstract static class Engine implements ReconstructionEngine {
+        private final String name;
+
+        Engine(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * {@link LongLagrange}, redone with the exact engine on overflow.
+     */
+    private static final class LongEngine extends Engine {
+        LongEngine() {
+            super("long");
+        }
+
+        @Override
+        public BigInteger constantTerm(long[] xs, BigInteger[] ys) {
+            long[] small = new long[ys.length];
+            for (int i = 0; i < ys.length; i++) {
+                if (ys[i].bitLength() >= Long.SIZE) {
+                    return EXACT.constantTerm(xs, ys);
+                }
+                small[i] = ys[i].longValue();
+            }
+            return constantTerm(xs, small);
+        }
+
+        @Override
+        public BigInteger constantTerm(long[] xs, long[] ys) {
+            try {
+                return BigInteger.valueOf(LongLagrange.constantTerm(xs, ys, xs.length));
+            } catch (ArithmeticException e) {
+                return EXACT.constantTerm(xs, toBigIntegers(ys));
+            }
+        }
+    }
+
+    static BigInteger[] toBigIntegers(long[] values) {
+        BigInteger[] result = new BigInteger[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = BigInteger.valueOf(values[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,407 @@
+import java.util.Arrays;
+
+/**
+ * Subquadratic interpolation and multipoint evaluation over a prime field.
+ *
+ * Polynomials are multiplied with a number-theoretic transform, so the field
+ * must have a large power of two dividing p - 1; {@link #NTT_PRIME} =
+ * 29 * 2^57 + 1 is the default. A subproduct tree over the x-coordinates
+ * gives M(x) = prod(x - x_i). M'(x_i) comes from a remainder tree using
+ * Newton-iteration division, and the interpolant is assembled back up the
+ * tree. Interpolation and multipoint evaluation both cost O(k log^2 k),
+ * instead of the O(k^2) of the Lagrange loops.
+ *
+ * Inputs and outputs are canonical residues in [0, p); polynomials are
+ * coefficient arrays, lowest degree first. Instances are thread-safe.
+ */
+public class FastInterpolator {
+
+    /** 29 * 2^57 + 1: below 2^62, with 2^57-th roots of unity. */
+    public static final long NTT_PRIME = 4179340454199820289L;
+
+    /** Below this many points the quadratic Lagrange loops are faster. */
+    public static final int MIN_POINTS = 1024;
+
+    /** Below this size schoolbook multiplication beats the transform. */
+    private static final int NAIVE_MULTIPLY = 32;
+    /** Subproduct tree leaves hold up to this many points and are handled directly. */
+    private static final int LEAF_SIZE = 32;
+
+    private final PrimeField field;
+    private final int maxLog;
+    private final long[][] rootPowers;
+    private final long[][] inverseRootPowers;
+
+    public FastInterpolator() {
+        this(PrimeField.of(NTT_PRIME));
+    }
+
+    public FastInterpolator(PrimeField field) {
+        this.field = field;
+        this.maxLog = Math.min(30, Long.numberOfTrailingZeros(field.modulus() - 1));
+        this.rootPowers = new long[maxLog + 1][];
+        this.inverseRootPowers = new long[maxLog + 1][];
+    }
+
+    public PrimeField field() {
+        return field;
+    }
+
+    /**
+     * Whether the field has roots of unity for interpolating k points.
+     */
+    public static boolean supports(PrimeField field, int k) {
+        int needed = 34 - Integer.numberOfLeadingZeros(Math.max(1, k));
+        return Long.numberOfTrailingZeros(field.modulus() - 1) >= Math.min(30, needed);
+    }
+
+    /**
+     * f(0) for the polynomial through (xs[i], ys[i]).
+     */
+    public long constantTerm(long[] xs, long[] ys) {
+        int k = xs.length;
+        for (int i = 0; i < k; i++) {
+            if (xs[i] == 0) {
+                return ys[i];
+            }
+        }
+        Node tree = build(encodeAll(xs), 0, k);
+        long[] c = basisWeights(tree, ys);
+
+        // f(0) = M(0) * sum c_i / (0 - x_i)
+        long[] negX = new long[k];
+        for (int i = 0; i < k; i++) {
+            negX[i] = field.neg(field.encode(xs[i]));
+        }
+        field.batchInverse(negX, negX, new long[k], k);
+        long sum = 0;
+        for (int i = 0; i < k; i++) {
+            sum = field.add(sum, field.mul(c[i], negX[i]));
+        }
+        return field.decode(field.mul(tree.poly[0], sum));
+    }
+
+    /**
+     * Coefficients of the polynomial of degree below k through (xs[i], ys[i]).
+     */
+    public long[] interpolate(long[] xs, long[] ys) {
+        Node tree = build(encodeAll(xs), 0, xs.length);
+        long[] coefficients = combine(tree, basisWeights(tree, ys));
+        return decodeAll(Arrays.copyOf(coefficients, xs.length));
+    }
+
+    /**
+     * The polynomial evaluated at every point.
+     */
+    public long[] evaluate(long[] coefficients, long[] points) {
+        if (points.length == 0) {
+            return new long[0];
+        }
+        Node tree = build(encodeAll(points), 0, points.length);
+        long[] values = new long[points.length];
+        evaluate(remainder(encodeAll(coefficients), tree.poly), tree, values);
+        return decodeAll(values);
+    }
+
+    /**
+     * c_i = y_i / M'(x_i), in internal representation.
+     */
+    private long[] basisWeights(Node tree, long[] ys) {
+        int k = ys.length;
+        long[] derivativeValues = new long[k];
+        evaluate(remainder(derivative(tree.poly), tree.poly), tree, derivativeValues);
+        for (int i = 0; i < k; i++) {
+            if (derivativeValues[i] == 0) {
+                throw new IllegalArgumentException("x-coordinates collide mod " + field.modulus());
+            }
+        }
+        field.batchInverse(derivativeValues, derivativeValues, new long[k], k);
+        for (int i = 0; i < k; i++) {
+            derivativeValues[i] = field.mul(derivativeValues[i], field.encode(ys[i]));
+        }
+        return derivativeValues;
+    }
+
+    /** Subproduct tree node over points[lo, hi). */
+    private static final class Node {
+        final long[] points;
+        final int lo;
+        final int hi;
+        final long[] poly;
+        final Node left;
+        final Node right;
+
+        Node(long[] points, int lo, int hi, long[] poly, Node left, Node right) {
+            this.points = points;
+            this.lo = lo;
+            this.hi = hi;
+            this.poly = poly;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private Node build(long[] points, int lo, int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            long[] poly = { field.one() };
+            for (int i = lo; i < hi; i++) {
+                poly = multiplyLinear(poly, points[i]);
+            }
+            return new Node(points, lo, hi, poly, null, null);
+        }
+        int mid = (lo + hi) >>> 1;
+        Node left = build(points, lo, mid);
+        Node right = build(points, mid, hi);
+        return new Node(points, lo, hi, multiply(left.poly, right.poly), left, right);
+    }
+
+    /** Values of p (already reduced mod node.poly) at the node's points. */
+    private void evaluate(long[] p, Node node, long[] out) {
+        if (node.left == null) {
+            for (int i = node.lo; i < node.hi; i++) {
+                long x = node.points[i];
+                long value = 0;
+                for (int j = p.length - 1; j >= 0; j--) {
+                    value = field.add(field.mul(value, x), p[j]);
+                }
+                out[i] = value;
+            }
+            return;
+        }
+        evaluate(remainder(p, node.left.poly), node.left, out);
+        evaluate(remainder(p, node.right.poly), node.right, out);
+    }
+
+    /** sum c_i * M(x) / (x - x_i) over the node's points. */
+    private long[] combine(Node node, long[] c) {
+        if (node.left == null) {
+            long[] result = new long[node.hi - node.lo];
+            for (int i = node.lo; i < node.hi; i++) {
+                long[] quotient = divideLinear(node.poly, node.points[i]);
+                for (int j = 0; j < quotient.length; j++) {
+                    result[j] = field.add(result[j], field.mul(c[i], quotient[j]));
+                }
+            }
+            return result;
+        }
+        long[] a = multiply(combine(node.left, c), node.right.poly);
+        long[] b = multiply(combine(node.right, c), node.left.poly);
+        long[] sum = new long[Math.max(a.length, b.length)];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = field.add(i < a.length ? a[i] : 0, i < b.length ? b[i] : 0);
+        }
+        return sum;
+    }
+
+    // ---- Polynomial arithmetic on internal representations ----
+
+    long[] multiply(long[] a, long[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return new long[0];
+        }
+        int resultLength = a.length + b.length - 1;
+        if (Math.min(a.length, b.length) <= NAIVE_MULTIPLY) {
+            long[] result = new long[resultLength];
+            for (int i = 0; i < a.length; i++) {
+                long ai = a[i];
+                if (ai == 0) {
+                    continue;
+                }
+                for (int j = 0; j < b.length; j++) {
+                    result[i + j] = field.add(result[i + j], field.mul(ai, b[j]));
+                }
+            }
+            return result;
+        }
+        int log = 32 - Integer.numberOfLeadingZeros(resultLength - 1);
+        if (log > maxLog) {
+            throw new IllegalArgumentException("Polynomial too large for the NTT in " + field);
+        }
+        int n = 1 << log;
+        long[] fa = Arrays.copyOf(a, n);
+        long[] fb = Arrays.copyOf(b, n);
+        transform(fa, log, false);
+        transform(fb, log, false);
+        for (int i = 0; i < n; i++) {
+            fa[i] = field.mul(fa[i], fb[i]);
+        }
+        transform(fa, log, true);
+        return Arrays.copyOf(fa, resultLength);
+    }
+
+    /** a mod b for monic b. */
+    private long[] remainder(long[] a, long[] b) {
+        int m = b.length - 1;
+        if (a.length <= m) {
+            return a;
+        }
+        int quotientLength = a.length - m;
+        if (m <= NAIVE_MULTIPLY || quotientLength <= NAIVE_MULTIPLY) {
+            long[] r = a.clone();
+            for (int i = a.length - 1; i >= m; i--) {
+                long lead = r[i];
+                if (lead != 0) {
+                    for (int j = 0; j < m; j++) {
+                        r[i - m + j] = field.sub(r[i - m + j], field.mul(lead, b[j]));
+                    }
+                }
+            }
+            return Arrays.copyOf(r, m);
+        }
+        // rev(q) = rev(a) / rev(b) mod x^(n - m + 1)
+        long[] inverse = seriesInverse(reverse(b, b.length), quotientLength);
+        long[] q = reverse(Arrays.copyOf(multiply(reverse(a, a.length), inverse), quotientLength), quotientLength);
+        long[] bq = multiply(b, q);
+        long[] r = new long[m];
+        for (int i = 0; i < m; i++) {
+            r[i] = field.sub(a[i], bq[i]);
+        }
+        return r;
+    }
+
+    /** b with a * b = 1 mod x^n, by Newton iteration; a[0] must be invertible. */
+    private long[] seriesInverse(long[] a, int n) {
+        long[] b = { field.inverse(a[0]) };
+        int length = 1;
+        while (length < n) {
+            length = Math.min(2 * length, n);
+            long[] ab = multiply(Arrays.copyOf(a, Math.min(a.length, length)), b);
+            long[] correction = new long[length];
+            for (int i = 0; i < length; i++) {
+                long v = i < ab.length ? ab[i] : 0;
+                correction[i] = field.neg(v);
+            }
+            correction[0] = field.add(correction[0], field.add(field.one(), field.one()));
+            b = Arrays.copyOf(multiply(b, correction), length);
+        }
+        return b;
+    }
+
+    private long[] derivative(long[] p) {
+        if (p.length <= 1) {
+            return new long[0];
+        }
+        long[] d = new long[p.length - 1];
+        for (int i = 1; i < p.length; i++) {
+            d[i - 1] = field.mul(p[i], field.encode(i));
+        }
+        return d;
+    }
+
+    /** p * (x - root). */
+    private long[] multiplyLinear(long[] p, long root) {
+        long[] result = new long[p.length + 1];
+        for (int i = 0; i < p.length; i++) {
+            result[i + 1] = field.add(result[i + 1], p[i]);
+            result[i] = field.sub(result[i], field.mul(p[i], root));
+        }
+        return result;
+    }
+
+    /** p / (x - root) by synthetic division, discarding the remainder. */
+    private long[] divideLinear(long[] p, long root) {
+        long[] q = new long[p.length - 1];
+        long carry = 0;
+        for (int i = p.length - 1; i >= 1; i--) {
+            carry = field.add(p[i], field.mul(carry, root));
+            q[i - 1] = carry;
+        }
+        return q;
+    }
+
+    private static long[] reverse(long[] p, int length) {
+        long[] r = new long[length];
+        for (int i = 0; i < length && i < p.length; i++) {
+            r[length - 1 - i] = p[i];
+        }
+        return r;
+    }
+
+    /** In-place iterative radix-2 NTT of length 2^log. */
+    private void transform(long[] a, int log, boolean inverse) {
+        int n = 1 << log;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                long t = a[i];
+                a[i] = a[j];
+                a[j] = t;
+            }
+        }
+        for (int level = 1; level <= log; level++) {
+            int half = 1 << (level - 1);
+            long[] w = twiddles(level, inverse);
+            for (int start = 0; start < n; start += 2 * half) {
+                for (int j = 0; j < half; j++) {
+                    long u = a[start + j];
+                    long v = field.mul(a[start + j + half], w[j]);
+                    a[start + j] = field.add(u, v);
+                    a[start + j + half] = field.sub(u, v);
+                }
+            }
+        }
+        if (inverse) {
+            long scale = field.inverse(field.encode(n));
+            for (int i = 0; i < n; i++) {
+                a[i] = field.mul(a[i], scale);
+            }
+        }
+    }
+
+    /** Powers w^0 .. w^(2^(level-1) - 1) of a primitive 2^level-th root of unity. */
+    private synchronized long[] twiddles(int level, boolean inverse) {
+        long[][] cache = inverse ? inverseRootPowers : rootPowers;
+        if (cache[level] == null) {
+            long root = rootOfUnity(level);
+            if (inverse) {
+                root = field.inverse(root);
+            }
+            long[] w = new long[1 << (level - 1)];
+            w[0] = field.one();
+            for (int i = 1; i < w.length; i++) {
+                w[i] = field.mul(w[i - 1], root);
+            }
+            cache[level] = w;
+        }
+        return cache[level];
+    }
+
+    /** A primitive 2^level-th root of unity. */
+    private long rootOfUnity(int level) {
+        long p = field.modulus();
+        int twoAdicity = Long.numberOfTrailingZeros(p - 1);
+        for (long a = 2; ; a++) {
+            long candidate = field.pow(field.encode(a), (p - 1) >>> twoAdicity);
+            // Primitive 2^t-th root iff its 2^(t-1)-th power is -1
+            long check = candidate;
+            for (int i = 1; i < twoAdicity; i++) {
+                check = field.mul(check, check);
+            }
+            if (check != field.one()) {
+                for (int i = level; i < twoAdicity; i++) {
+                    candidate = field.mul(candidate, candidate);
+                }
+                return candidate;
+            }
+        }
+    }
+
+    private long[] encodeAll(long[] values) {
+        long[] encoded = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = field.encode(values[i]);
+        }
+        return encoded;
+    }
+
+    private long[] decodeAll(long[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = field.decode(values[i]);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Lagrange interpolation over a word-size prime field.
+ *
+ * All scratch storage is sized once per instance, so repeated
+ * reconstructions do not allocate. Inputs and outputs are canonical
+ * residues in [0, p); the denominators of every basis polynomial are
+ * inverted together with one field inversion. The inverted denominators
+ * are kept for the last x-set, so evaluating the same shares at further
+ * points costs O(k) each. Instances are not thread-safe.
+ */
+public class FieldLagrange {
+
+    private final PrimeField field;
+    private long[] xs;
+    private long[] ys;
+    private long[] denominators;
+    private long[] scratch;
+    /** Number of x-coordinates the denominators were inverted for, or -1 if none. */
+    private int basisK = -1;
+
+    public FieldLagrange(PrimeField field, int capacity) {
+        this.field = field;
+        allocate(capacity);
+    }
+
+    public PrimeField field() {
+        return field;
+    }
+
+    /**
+     * f(0) mod p for the first k shares.
+     */
+    public long constantTerm(long[] x, long[] y, int k) {
+        return valueAt(x, y, k, 0);
+    }
+
+    /**
+     * f(at) mod p for the polynomial through the first k shares.
+     */
+    public long valueAt(long[] x, long[] y, int k, long at) {
+        if (k > xs.length) {
+            allocate(k);
+        }
+        PrimeField f = field;
+        boolean sameBasis = k == basisK;
+        for (int i = 0; i < k; i++) {
+            long xi = f.encode(x[i]);
+            sameBasis &= xs[i] == xi;
+            xs[i] = xi;
+            ys[i] = f.encode(y[i]);
+        }
+        long t = f.encode(at);
+        if (!sameBasis) {
+            invertDenominators(k);
+        }
+
+        // numerator_i = prod(at - x_j), j != i, from prefix and suffix products
+        long prefix = f.one();
+        for (int i = 0; i < k; i++) {
+            scratch[i] = prefix;
+            prefix = f.mul(prefix, f.sub(t, xs[i]));
+        }
+        long result = 0;
+        long suffix = f.one();
+        for (int i = k - 1; i >= 0; i--) {
+            long basis = f.mul(f.mul(scratch[i], suffix), denominators[i]);
+            result = f.add(result, f.mul(ys[i], basis));
+            suffix = f.mul(suffix, f.sub(t, xs[i]));
+        }
+        return f.decode(result);
+    }
+
+    /**
+     * 1 / d_i with d_i = prod(x_i - x_j), j != i, for the first k encoded
+     * x-coordinates; O(k^2), so done once per x-set.
+     */
+    private void invertDenominators(int k) {
+        PrimeField f = field;
+        basisK = -1;
+        for (int i = 0; i < k; i++) {
+            long xi = xs[i];
+            long d = f.one();
+            for (int j = 0; j < k; j++) {
+                if (j != i) {
+                    d = f.mul(d, f.sub(xi, xs[j]));
+                }
+            }
+            if (d == 0) {
+                throw new IllegalArgumentException("x-coordinates collide mod " + f.modulus());
+            }
+            denominators[i] = d;
+        }
+        f.batchInverse(denominators, denominators, scratch, k);
+        basisK = k;
+    }
+
+    private void allocate(int capacity) {
+        xs = new long[capacity];
+        ys = new long[capacity];
+        denominators = new long[capacity];
+        scratch = new long[capacity];
+        basisK = -1;
+    }
+}
@@ -0,0 +1,259 @@
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Probabilistic check that extra shares lie on the polynomial through the
+ * first k, using residues modulo random 61-bit primes.
+ *
+ * Modulo a prime p, the interpolant's coefficients are computed once in
+ * O(k^2). Each extra point then costs one O(k) Horner pass in word
+ * multiplications, with no BigInteger arithmetic at all. A point off the
+ * polynomial passes mod p only if p divides the numerator of its error,
+ * the determinant of the Vandermonde matrix of the k + 1 points augmented
+ * with their y column. That has at most B bits, with B bounded from k, the
+ * y sizes and the x range, so at most B/60 of the roughly 2^60/42 primes
+ * of 61 bits qualify. Enough independent primes are drawn to push the chance of
+ * accepting a bad point below the requested probability.
+ *
+ * Rejections are always correct; only acceptance is probabilistic.
+ */
+public class FingerprintVerifier {
+
+    /** Default bound on accepting a share set that is not consistent */
+    public static final double DEFAULT_FALSE_ACCEPT_PROBABILITY = 1e-18;
+
+    private static final int PRIME_BITS = 61;
+
+    /** log2 of the number of 61-bit primes, about 2^60 / ln(2^61) */
+    private static final double LOG2_PRIME_COUNT = 60 - Math.log(PRIME_BITS * Math.log(2)) / Math.log(2);
+
+    private final double falseAcceptProbability;
+    private final Random random;
+
+    public FingerprintVerifier(double falseAcceptProbability) {
+        this(falseAcceptProbability, new SecureRandom());
+    }
+
+    public FingerprintVerifier(double falseAcceptProbability, Random random) {
+        if (!(falseAcceptProbability > 0 && falseAcceptProbability < 1)) {
+            throw new IllegalArgumentException("False-accept probability must be in (0, 1): "
+                                               + falseAcceptProbability);
+        }
+        this.falseAcceptProbability = falseAcceptProbability;
+        this.random = random;
+    }
+
+    public double falseAcceptProbability() {
+        return falseAcceptProbability;
+    }
+
+    /**
+     * Whether points k and beyond lie on the polynomial through the first k.
+     * false is certain; true is wrong with at most the configured probability.
+     */
+    public boolean verify(long[] xs, long[] ys, int k) {
+        int yBits = 0;
+        for (long y : ys) {
+            yBits = Math.max(yBits, Long.SIZE - Long.numberOfLeadingZeros(Math.abs(y)));
+        }
+        int rounds = primes(k, yBits, xs);
+        long[] residues = new long[xs.length];
+        for (int round = 0; round < rounds; round++) {
+            PrimeField field = randomField(xs, k);
+            for (int i = 0; i < ys.length; i++) {
+                residues[i] = field.encode(ys[i]);
+            }
+            if (!consistent(field, xs, residues, k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * As {@link #verify(long[], long[], int)} for arbitrary y. Each y is
+     * split into 32-bit words once and reduced by Horner's rule per prime.
+     */
+    public boolean verify(long[] xs, BigInteger[] ys, int k) {
+        int yBits = 0;
+        int[][] words = new int[ys.length][];
+        for (int i = 0; i < ys.length; i++) {
+            yBits = Math.max(yBits, ys[i].bitLength());
+            words[i] = words(ys[i]);
+        }
+        int rounds = primes(k, yBits, xs);
+        long[] residues = new long[xs.length];
+        for (int round = 0; round < rounds; round++) {
+            PrimeField field = randomField(xs, k);
+            long radix = field.encode(1L << 32);
+            for (int i = 0; i < ys.length; i++) {
+                long r = 0;
+                for (int word : words[i]) {
+                    r = field.add(field.mul(r, radix), field.encode(word & 0xFFFFFFFFL));
+                }
+                residues[i] = ys[i].signum() < 0 ? field.neg(r) : r;
+            }
+            if (!consistent(field, xs, residues, k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * As {@link #verify(long[], long[], int)} for y-values in a packed store,
+     * reduced from their bytes per prime without building BigIntegers.
+     */
+    public boolean verify(long[] xs, ShareStore ys, int k) {
+        int rounds = primes(k, ys.maxBitLength(xs.length), xs);
+        long[] residues = new long[xs.length];
+        for (int round = 0; round < rounds; round++) {
+            PrimeField field = randomField(xs, k);
+            for (int i = 0; i < residues.length; i++) {
+                residues[i] = field.encode(ys.residue(i, field));
+            }
+            if (!consistent(field, xs, residues, k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of primes needed for these shares. The error at an extra point
+     * x_m is det(V') / det(V), with V the Vandermonde matrix of the first k
+     * points and V' that of those and x_m with the y column appended.
+     * Expanding det(V') along the y column gives k + 1 terms, each a y times
+     * a Vandermonde determinant of k points, a product of k(k-1)/2 x
+     * differences. So the numerator has at most
+     * B = yBits + k(k-1)/2 log2(x range) + log2(k + 1) bits, and a random
+     * 61-bit prime divides it with probability at most
+     * (B / 60) / (number of 61-bit primes).
+     */
+    int primes(int k, int yBits, long[] xs) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long x : xs) {
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+        }
+        double xRangeBits = Math.ceil(Math.log((double) max - (double) min + 1) / Math.log(2));
+        double numeratorBits = yBits + k * (k - 1.0) / 2 * xRangeBits + Math.ceil(Math.log(k + 1) / Math.log(2));
+        double log2PerPrime = Math.log(numeratorBits / (PRIME_BITS - 1)) / Math.log(2) - LOG2_PRIME_COUNT;
+        if (log2PerPrime >= 0) {
+            throw new IllegalArgumentException("Shares too large to fingerprint with " + PRIME_BITS + "-bit primes");
+        }
+        double log2Target = Math.log(falseAcceptProbability) / Math.log(2);
+        return Math.max(1, (int) Math.ceil(log2Target / log2PerPrime));
+    }
+
+    /**
+     * A random 61-bit prime field in which the first k x-coordinates stay
+     * distinct. A prime dividing some x_i - x_j is passed over; each
+     * difference has at most one 61-bit prime factor, so redraws are rare.
+     */
+    private PrimeField randomField(long[] xs, int k) {
+        long[] sorted = Arrays.copyOf(xs, k);
+        Arrays.sort(sorted);
+        for (int i = 1; i < k; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("Duplicate x-coordinate: " + sorted[i]);
+            }
+        }
+        while (true) {
+            PrimeField field = PrimeField.of(BigInteger.probablePrime(PRIME_BITS, random).longValueExact());
+            for (int i = 0; i < k; i++) {
+                sorted[i] = field.encode(xs[i]);
+            }
+            Arrays.sort(sorted);
+            boolean distinct = true;
+            for (int i = 1; i < k && distinct; i++) {
+                distinct = sorted[i] != sorted[i - 1];
+            }
+            if (distinct) {
+                return field;
+            }
+        }
+    }
+
+    /**
+     * Whether every point from k on matches the interpolant mod p. residues
+     * are encoded field elements. The interpolant is brought to coefficient
+     * form once, so each extra point is one Horner pass.
+     */
+    private static boolean consistent(PrimeField f, long[] xs, long[] residues, int k) {
+        int n = xs.length;
+        long[] ex = new long[n];
+        for (int i = 0; i < n; i++) {
+            ex[i] = f.encode(xs[i]);
+        }
+
+        // w_i = y_i / prod(x_i - x_j), j != i, over the basis points; the field
+        // was drawn so that these products are nonzero
+        long[] weights = new long[k];
+        long[] scratch = new long[k + 1];
+        for (int i = 0; i < k; i++) {
+            long d = f.one();
+            for (int j = 0; j < k; j++) {
+                if (j != i) {
+                    d = f.mul(d, f.sub(ex[i], ex[j]));
+                }
+            }
+            weights[i] = d;
+        }
+        f.batchInverse(weights, weights, scratch, k);
+        for (int i = 0; i < k; i++) {
+            weights[i] = f.mul(weights[i], residues[i]);
+        }
+
+        // M(x) = prod(x - x_i), coefficients lowest first
+        long[] master = scratch;
+        Arrays.fill(master, 0);
+        master[0] = f.one();
+        for (int i = 0; i < k; i++) {
+            for (int d = i + 1; d > 0; d--) {
+                master[d] = f.sub(master[d - 1], f.mul(ex[i], master[d]));
+            }
+            master[0] = f.neg(f.mul(ex[i], master[0]));
+        }
+
+        // f = sum w_i M(x) / (x - x_i), each quotient by synthetic division
+        long[] coefficients = new long[k];
+        for (int i = 0; i < k; i++) {
+            long carry = master[k];
+            for (int d = k - 1; d >= 0; d--) {
+                coefficients[d] = f.add(coefficients[d], f.mul(weights[i], carry));
+                carry = f.add(master[d], f.mul(ex[i], carry));
+            }
+        }
+
+        for (int m = k; m < n; m++) {
+            long t = ex[m];
+            long value = 0;
+            for (int d = k - 1; d >= 0; d--) {
+                value = f.add(f.mul(value, t), coefficients[d]);
+            }
+            if (value != residues[m]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** |y| as big-endian 32-bit words */
+    private static int[] words(BigInteger y) {
+        byte[] bytes = y.abs().toByteArray();
+        int[] words = new int[(bytes.length + 3) / 4];
+        for (int b = bytes.length - 1, shift = 0, w = words.length - 1; b >= 0; b--) {
+            words[w] |= (bytes[b] & 0xFF) << shift;
+            shift += 8;
+            if (shift == 32) {
+                shift = 0;
+                w--;
+            }
+        }
+        return words;
+    }
+}
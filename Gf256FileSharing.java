@@ -0,0 +1,337 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Byte-wise Shamir sharing of whole files over GF(2^8).
+ *
+ * Every byte of the input is the constant term of its own random
+ * polynomial of degree k - 1; share x holds the values of all those
+ * polynomials at x, so each share is as long as the input. Up to 255
+ * shares can be made.
+ *
+ * The field uses the AES polynomial x^8 + x^4 + x^3 + x + 1. Multiplying
+ * by a fixed element is a lookup in a 256-byte table built from log/exp
+ * tables. Splitting uses one table per share x, for Horner's rule across a
+ * whole buffer at a time. Reconstruction computes the k Lagrange
+ * coefficients at 0 once and reuses their tables for every byte. Input and
+ * shares stream through FileChannels with fixed-size buffers.
+ *
+ * The random coefficients are an AES-CTR keystream under a fresh
+ * SecureRandom key; SecureRandom alone delivers well under 100 MB/s, while
+ * AES runs on hardware intrinsics.
+ *
+ * Share files start with a small header:
+ *
+ * <pre>
+ * "HS8" version(1) x k   then the share bytes
+ * </pre>
+ */
+public class Gf256FileSharing {
+
+    private static final byte[] MAGIC = { 'H', 'S', '8' };
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 3;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Bytes per parallel task when combining a buffer. */
+    private static final int SLICE = 1 << 13;
+
+    private static final int[] EXP = new int[510];
+    private static final int[] LOG = new int[256];
+
+    static {
+        int value = 1;
+        for (int i = 0; i < 255; i++) {
+            EXP[i] = value;
+            EXP[i + 255] = value;
+            LOG[value] = i;
+            // Multiply by the generator 3 = x + 1
+            value ^= (value << 1) ^ ((value & 0x80) != 0 ? 0x11B : 0);
+        }
+    }
+
+    private Gf256FileSharing() {
+    }
+
+    static int mul(int a, int b) {
+        return a == 0 || b == 0 ? 0 : EXP[LOG[a] + LOG[b]];
+    }
+
+    static int inverse(int a) {
+        if (a == 0) {
+            throw new ArithmeticException("0 has no inverse in GF(256)");
+        }
+        return EXP[255 - LOG[a]];
+    }
+
+    /** t[b] = c * b, for every byte b. */
+    static byte[] multiplyTable(int c) {
+        byte[] table = new byte[256];
+        for (int b = 1; b < 256; b++) {
+            table[b] = (byte) mul(c, b);
+        }
+        return table;
+    }
+
+    /**
+     * Lagrange coefficients at 0 for the given distinct nonzero xs:
+     * L_i(0) = prod x_j / (x_j - x_i), where subtraction is XOR.
+     */
+    static int[] lagrangeAtZero(int[] xs) {
+        int[] coefficients = new int[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            int num = 1;
+            int den = 1;
+            for (int j = 0; j < xs.length; j++) {
+                if (j != i) {
+                    if (xs[i] == xs[j]) {
+                        throw new IllegalArgumentException("Duplicate share x = " + xs[i]);
+                    }
+                    num = mul(num, xs[j]);
+                    den = mul(den, xs[j] ^ xs[i]);
+                }
+            }
+            coefficients[i] = mul(num, inverse(den));
+        }
+        return coefficients;
+    }
+
+    /**
+     * Split input into shares.length shares, any k of which recover it.
+     * Share i gets x = i + 1.
+     */
+    public static void split(Path input, int k, Path... shares) throws IOException {
+        int n = shares.length;
+        if (k < 1 || n < k || n > 255) {
+            throw new IllegalArgumentException("Need 1 <= k <= n <= 255, got k = " + k + ", n = " + n);
+        }
+        byte[][] mulX = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            mulX[i] = multiplyTable(i + 1);
+        }
+
+        Cipher random = keystream();
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] coefficients = new byte[(k - 1) * BUFFER_SIZE];
+        ByteBuffer[] out = new ByteBuffer[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        FileChannel[] channels = new FileChannel[n];
+        try (FileChannel source = FileChannel.open(input, StandardOpenOption.READ)) {
+            for (int i = 0; i < n; i++) {
+                channels[i] = FileChannel.open(shares[i], StandardOpenOption.WRITE,
+                                               StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                writeFully(channels[i], ByteBuffer.wrap(new byte[] {
+                    MAGIC[0], MAGIC[1], MAGIC[2], VERSION, (byte) (i + 1), (byte) k }));
+            }
+
+            byte[] secret = in.array();
+            int length;
+            while ((length = readFully(source, in.clear())) > 0) {
+                Arrays.fill(coefficients, (byte) 0);
+                try {
+                    random.update(coefficients, 0, coefficients.length, coefficients, 0);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("AES keystream failed", e);
+                }
+                int chunk = length;
+                // Shares are independent once the coefficients are drawn
+                IntStream.range(0, n).parallel().forEach(i ->
+                    evaluate(mulX[i], coefficients, secret, k, out[i].array(), chunk));
+                for (int i = 0; i < n; i++) {
+                    out[i].clear().limit(length);
+                    writeFully(channels[i], out[i]);
+                }
+            }
+        } finally {
+            closeAll(channels);
+        }
+    }
+
+    /** One share's bytes by Horner's rule, from the top coefficient down to the secret byte. */
+    private static void evaluate(byte[] mulX, byte[] coefficients, byte[] secret, int k, byte[] share, int length) {
+        if (k == 1) {
+            System.arraycopy(secret, 0, share, 0, length);
+            return;
+        }
+        System.arraycopy(coefficients, (k - 2) * BUFFER_SIZE, share, 0, length);
+        for (int j = k - 3; j >= -1; j--) {
+            byte[] next = j >= 0 ? coefficients : secret;
+            int offset = j >= 0 ? j * BUFFER_SIZE : 0;
+            for (int p = 0; p < length; p++) {
+                share[p] = (byte) (mulX[share[p] & 0xFF] ^ next[offset + p]);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the original file from at least k shares.
+     */
+    public static void reconstruct(Path output, Path... shares) throws IOException {
+        FileChannel[] channels = new FileChannel[shares.length];
+        try {
+            int k = -1;
+            int[] xs = new int[shares.length];
+            long length = -1;
+            for (int i = 0; i < shares.length; i++) {
+                channels[i] = FileChannel.open(shares[i], StandardOpenOption.READ);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                if (readFully(channels[i], header) < HEADER_SIZE || header.get(0) != MAGIC[0]
+                        || header.get(1) != MAGIC[1] || header.get(2) != MAGIC[2]) {
+                    throw new IOException(shares[i] + " is not a GF(256) share file");
+                }
+                if (header.get(3) != VERSION) {
+                    throw new IOException(shares[i] + ": unsupported share version " + header.get(3));
+                }
+                xs[i] = header.get(4) & 0xFF;
+                int shareK = header.get(5) & 0xFF;
+                if (k >= 0 && shareK != k || length >= 0 && channels[i].size() != length) {
+                    throw new IOException(shares[i] + " does not belong with " + shares[0]);
+                }
+                k = shareK;
+                length = channels[i].size();
+            }
+            if (shares.length < k) {
+                throw new IllegalArgumentException("Need at least k = " + k + " shares, got " + shares.length);
+            }
+
+            // One set of coefficients for every byte position
+            int[] basis = Arrays.copyOf(xs, k);
+            int[] coefficients = lagrangeAtZero(basis);
+            byte[][] tables = new byte[k][];
+            for (int i = 0; i < k; i++) {
+                tables[i] = multiplyTable(coefficients[i]);
+            }
+
+            ByteBuffer[] in = new ByteBuffer[k];
+            for (int i = 0; i < k; i++) {
+                in[i] = ByteBuffer.allocate(BUFFER_SIZE);
+            }
+            ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] secret = out.array();
+            int threshold = k;
+            try (FileChannel target = FileChannel.open(output, StandardOpenOption.WRITE,
+                                                       StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (long done = HEADER_SIZE; done < length; ) {
+                    int chunk = (int) Math.min(BUFFER_SIZE, length - done);
+                    for (int i = 0; i < k; i++) {
+                        in[i].clear().limit(chunk);
+                        if (readFully(channels[i], in[i]) != chunk) {
+                            throw new IOException(shares[i] + " ended early");
+                        }
+                    }
+                    IntStream.range(0, (chunk + SLICE - 1) / SLICE).parallel().forEach(slice ->
+                        combine(tables, in, secret, slice * SLICE, Math.min(chunk, (slice + 1) * SLICE), threshold));
+                    out.clear().limit(chunk);
+                    writeFully(target, out);
+                    done += chunk;
+                }
+            }
+        } finally {
+            closeAll(channels);
+        }
+    }
+
+    /** secret[from, to) = sum of L_i(0) * share_i, one table lookup per share byte. */
+    private static void combine(byte[][] tables, ByteBuffer[] shares, byte[] secret, int from, int to, int k) {
+        Arrays.fill(secret, from, to, (byte) 0);
+        for (int i = 0; i < k; i++) {
+            byte[] table = tables[i];
+            byte[] share = shares[i].array();
+            for (int p = from; p < to; p++) {
+                secret[p] ^= table[share[p] & 0xFF];
+            }
+        }
+    }
+
+    /** AES-256 in counter mode with a random key and IV; encrypting zeros yields random bytes. */
+    private static Cipher keystream() {
+        SecureRandom seed = new SecureRandom();
+        byte[] key = new byte[32];
+        byte[] iv = new byte[16];
+        seed.nextBytes(key);
+        seed.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/CTR is not available", e);
+        }
+    }
+
+    /** Read until the buffer is full or the channel ends, then flip; returns the bytes read. */
+    private static int readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading
+        }
+        buffer.flip();
+        return buffer.limit();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void closeAll(FileChannel[] channels) throws IOException {
+        IOException error = null;
+        for (FileChannel channel : channels) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Usage:
+     *   java Gf256FileSharing split file k n      (writes file.share1 .. file.shareN)
+     *   java Gf256FileSharing combine output share...
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 4 && "split".equals(args[0])) {
+            int k = Integer.parseInt(args[2]);
+            int n = Integer.parseInt(args[3]);
+            Path[] shares = new Path[n];
+            for (int i = 0; i < n; i++) {
+                shares[i] = Paths.get(args[1] + ".share" + (i + 1));
+            }
+            long start = System.nanoTime();
+            split(Paths.get(args[1]), k, shares);
+            System.err.printf("Split into %d shares (k = %d) in %.1f ms%n", n, k, (System.nanoTime() - start) / 1e6);
+        } else if (args.length >= 3 && "combine".equals(args[0])) {
+            Path[] shares = new Path[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                shares[i - 2] = Paths.get(args[i]);
+            }
+            long start = System.nanoTime();
+            reconstruct(Paths.get(args[1]), shares);
+            System.err.printf("Reconstructed in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        } else {
+            System.err.println("Usage: java Gf256FileSharing split file k n");
+            System.err.println("       java Gf256FileSharing combine output share...");
+            System.exit(2);
+        }
+    }
+}
@@ -1,4 +1,5 @@
-import java.nio.file.Files;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.math.BigInteger;
@@ -9,35 +10,41 @@ import java.math.BigInteger;
 public class HashiraCleanOutput {
     
     public static void main(String[] args) {
+        HashiraSecretSharing.Options options = HashiraSecretSharing.Options.parse(args);
+        if (options.metrics != null) {
+            PhaseMetrics.dumpAtExit(options.metrics);
+        }
+        if (options.batch != null) {
+            HashiraSecretSharing.runBatch(options);
+            return;
+        }
+        
         System.out.println("HASHIRA PLACEMENTS ASSIGNMENT - RESULTS");
         System.out.println("========================================");
         
         // Test Case 1
         System.out.println("\nTEST CASE 1:");
-        processTestCase("roots.json");
+        processTestCase("roots.json", options.engine);
         
         // Test Case 2  
         System.out.println("\nTEST CASE 2:");
-        processTestCase("testcase2.json");
+        processTestCase("testcase2.json", options.engine);
     }
     
-    private static void processTestCase(String filename) {
+    private static void processTestCase(String filename, ReconstructionEngine engine) {
         try {
-            String content = new String(Files.readAllBytes(Paths.get(filename)));
-            
-            // Parse basic info
-            int n = parseIntValue(content, "n");
-            int k = parseIntValue(content, "k");
+            // Parse and convert points in one streaming pass
+            int[] keys = new int[2];
+            List<HashiraSecretSharing.Point> points = parseAndConvertPoints(Paths.get(filename), keys);
+            int n = keys[0];
+            int k = keys[1];
             
             System.out.println("File: " + filename);
             System.out.println("n = " + n + ", k = " + k);
             
-            // Parse and convert points
-            List<Point> points = parseAndConvertPoints(content);
-            
             // Calculate secret using first k points
-            List<Point> selectedPoints = points.subList(0, Math.min(k, points.size()));
-            BigInteger secret = calculateSecret(selectedPoints);
+            List<HashiraSecretSharing.Point> selectedPoints = points.subList(0, Math.min(k, points.size()));
+            BigInteger secret = calculateSecret(selectedPoints, engine);
             
             System.out.println("SECRET (CONSTANT TERM): " + secret);
             
@@ -46,80 +53,46 @@ public class HashiraCleanOutput {
         }
     }
     
-    private static List<Point> parseAndConvertPoints(String content) {
-        List<Point> points = new ArrayList<>();
-        
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
-            "\"(\\d+)\":\\s*\\{[^}]*\"base\":\\s*\"(\\d+)\"[^}]*\"value\":\\s*\"([^\"]+)\"[^}]*\\}"
-        );
-        java.util.regex.Matcher matcher = pattern.matcher(content);
+    private static List<HashiraSecretSharing.Point> parseAndConvertPoints(Path file, int[] keys) throws IOException {
+        List<HashiraSecretSharing.Point> points = new ArrayList<>();
         
-        while (matcher.find()) {
-            int x = Integer.parseInt(matcher.group(1));
-            int base = Integer.parseInt(matcher.group(2));
-            String value = matcher.group(3);
-            
-            BigInteger y = convertToDecimal(value, base);
-            points.add(new Point(BigInteger.valueOf(x), y));
+        try (ShareFileReader reader = ShareFileReader.open(file)) {
+            reader.read(new ShareFileReader.Listener() {
+                @Override
+                public void keys(int n, int k) {
+                    keys[0] = n;
+                    keys[1] = k;
+                }
+                
+                @Override
+                public void point(HashiraSecretSharing.PointData pd) {
+                    points.add(HashiraSecretSharing.Point.of(pd));
+                }
+            });
         }
         
         return points;
     }
     
-    private static BigInteger convertToDecimal(String value, int base) {
-        BigInteger result = BigInteger.ZERO;
-        BigInteger baseValue = BigInteger.valueOf(base);
-        
-        for (char digit : value.toCharArray()) {
-            int digitValue;
-            if (digit >= '0' && digit <= '9') {
-                digitValue = digit - '0';
-            } else if (digit >= 'a' && digit <= 'z') {
-                digitValue = digit - 'a' + 10;
-            } else if (digit >= 'A' && digit <= 'Z') {
-                digitValue = digit - 'A' + 10;
-            } else {
-                throw new IllegalArgumentException("Invalid digit: " + digit);
+    private static BigInteger calculateSecret(List<HashiraSecretSharing.Point> points, ReconstructionEngine engine) {
+        long[] xs = new long[points.size()];
+        long[] smallYs = new long[points.size()];
+        BigInteger[] ys = null;
+        for (int i = 0; i < xs.length; i++) {
+            HashiraSecretSharing.Point p = points.get(i);
+            xs[i] = p.x;
+            smallYs[i] = p.y;
+            if (!p.isSmall() && ys == null) {
+                ys = new BigInteger[xs.length];
             }
-            
-            result = result.multiply(baseValue).add(BigInteger.valueOf(digitValue));
         }
-        
-        return result;
-    }
-    
-    private static BigInteger calculateSecret(List<Point> points) {
-        BigInteger result = BigInteger.ZERO;
-        
-        for (int i = 0; i < points.size(); i++) {
-            Point pi = points.get(i);
-            
-            BigInteger numerator = BigInteger.ONE;
-            BigInteger denominator = BigInteger.ONE;
-            
-            for (int j = 0; j < points.size(); j++) {
-                if (i != j) {
-                    Point pj = points.get(j);
-                    numerator = numerator.multiply(pj.x.negate());
-                    denominator = denominator.multiply(pi.x.subtract(pj.x));
-                }
-            }
-            
-            BigInteger term = pi.y.multiply(numerator).divide(denominator);
-            result = result.add(term);
+        if (ys == null) {
+            ReconstructionEngine selected = engine != null ? engine : EngineSelector.shared().select(xs, smallYs);
+            return selected.constantTerm(xs, smallYs);
         }
-        
-        return result;
-    }
-    
-    private static int parseIntValue(String content, String key) {
-        java.util.regex.Pattern p = java.util.regex.Pattern.compile("\"" + key + "\":\\s*(\\d+)");
-        java.util.regex.Matcher m = p.matcher(content);
-        return m.find() ? Integer.parseInt(m.group(1)) : 0;
-    }
-    
-    static class Point {
-        BigInteger x, y;
-        Point(BigInteger x, BigInteger y) { this.x = x; this.y = y; }
+        for (int i = 0; i < xs.length; i++) {
+            ys[i] = points.get(i).y();
+        }
+        return engine != null ? engine.constantTerm(xs, ys) : EngineSelector.shared().constantTerm(xs, ys);
     }
 }
@@ -1,5 +1,9 @@
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.math.BigInteger;
@@ -11,52 +15,173 @@ import java.math.BigInteger;
  */
 public class HashiraSecretSharing {
     
+    /** Lagrange coefficients are printed only up to this many points */
+    private static final int MAX_LISTED_COEFFICIENTS = 32;
+    
+    /** Verbosity levels: results only; plus progress; plus every intermediate value (the default) */
+    static final int QUIET = 0;
+    static final int NORMAL = 1;
+    static final int DETAILED = 2;
+    
     public static void main(String[] args) {
+        Options options = Options.parse(args);
+        if (options.metrics != null) {
+            PhaseMetrics.dumpAtExit(options.metrics);
+        }
+        if (options.batch != null) {
+            runBatch(options);
+            return;
+        }
+        if (options.serve >= 0) {
+            try {
+                SecretService.serve(options.serve, options.field);
+            } catch (IOException e) {
+                System.err.println("Cannot serve on port " + options.serve + ": " + e.getMessage());
+            }
+            return;
+        }
+        
         // Process both test cases
-        System.out.println("=".repeat(60));
-        System.out.println("HASHIRA PLACEMENTS ASSIGNMENT - SECRET SHARING SOLVER");
-        System.out.println("=".repeat(60));
+        boolean banners = options.verbosity >= NORMAL;
+        if (banners) {
+            System.out.println("=".repeat(60));
+            System.out.println("HASHIRA PLACEMENTS ASSIGNMENT - SECRET SHARING SOLVER");
+            System.out.println("=".repeat(60));
+        }
         
-        processTestCase("roots.json", "Test Case 1");
-        System.out.println("\n" + "=".repeat(60));
-        processTestCase("testcase2.json", "Test Case 2");
+        ResultCache cache = options.openCache();
+        processTestCase("roots.json", "Test Case 1", options, cache);
+        if (banners) {
+            System.out.println("\n" + "=".repeat(60));
+        }
+        processTestCase("testcase2.json", "Test Case 2", options, cache);
     }
     
-    private static void processTestCase(String filename, String testName) {
+    private static void processTestCase(String filename, String testName, Options options, ResultCache cache) {
+        boolean normal = options.verbosity >= NORMAL;
+        boolean detailed = options.verbosity >= DETAILED;
         try {
-            System.out.println("\n" + testName + " - Processing: " + filename);
-            System.out.println("-".repeat(40));
+            if (normal) {
+                System.out.println("\n" + testName + " - Processing: " + filename);
+                System.out.println("-".repeat(40));
+            }
+            
+            // A result cached for these exact bytes skips all the work. Mismatches
+            // are redone: the cache holds no Reed-Solomon correction to print.
+            FingerprintVerifier fingerprint = options.fingerprint();
+            String cacheContext = ResultCache.context(options.field, fingerprint);
+            String fileKey = null;
+            if (cache != null) {
+                fileKey = ResultCache.fileKey(Paths.get(filename), cacheContext);
+                ResultCache.Result cached = cache.get(fileKey);
+                if (cached != null && !ResultCache.MISMATCH.equals(cached.status)) {
+                    printCached(testName, cached, options.verbosity);
+                    return;
+                }
+            }
             
-            // Read and parse JSON
-            String content = new String(Files.readAllBytes(Paths.get(filename)));
-            TestCase testCase = parseJsonTestCase(content);
+            // Stream and parse JSON
+            TestCase testCase;
+            try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.PARSE, filename)) {
+                testCase = parseJsonTestCase(Paths.get(filename));
+                span.points(testCase.points.size());
+            }
             
-            System.out.println("n (total points): " + testCase.n);
-            System.out.println("k (minimum points needed): " + testCase.k);
-            System.out.println("Polynomial degree: " + (testCase.k - 1));
+            // ... as does one cached for the same shares laid out differently
+            String canonicalKey = null;
+            if (cache != null) {
+                canonicalKey = canonicalKey(testCase, cacheContext);
+                ResultCache.Result cached = cache.get(canonicalKey);
+                if (cached != null && !ResultCache.MISMATCH.equals(cached.status)) {
+                    cache.put(cached, fileKey);
+                    printCached(testName, cached, options.verbosity);
+                    return;
+                }
+            }
+            
+            if (normal) {
+                System.out.println("n (total points): " + testCase.n);
+                System.out.println("k (minimum points needed): " + testCase.k);
+                System.out.println("Polynomial degree: " + (testCase.k - 1));
+            }
             
             // Convert points from different bases to decimal
-            List<Point> points = convertPointsToDecimal(testCase.points);
+            ShareStore points;
+            try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.CONVERT, filename)) {
+                points = convertPointsToDecimal(testCase.points, detailed);
+                span.points(points.size());
+            }
             
-            System.out.println("\nConverted Points (x, y):");
-            for (Point p : points) {
-                System.out.println("(" + p.x + ", " + p.y + ")");
+            if (detailed) {
+                System.out.println("\nConverted Points (x, y):");
+                for (int i = 0; i < points.size(); i++) {
+                    System.out.println("(" + points.x(i) + ", " + points.y(i) + ")");
+                }
             }
             
             // Take first k points for interpolation
-            List<Point> selectedPoints = points.subList(0, Math.min(testCase.k, points.size()));
+            int selected = Math.min(testCase.k, points.size());
+            
+            PrimeField field = options.field;
+            if (field == null && testCase.prime != 0) {
+                if (normal) {
+                    System.out.println("Shares declare the field GF(" + testCase.prime + ")");
+                }
+                field = PrimeField.of(testCase.prime);
+            }
+            if (field != null) {
+                ResultCache.Result result = processInField(field, points, testCase, testName, filename,
+                                                           options.verbosity);
+                if (cache != null) {
+                    cache.put(result, fileKey, canonicalKey);
+                }
+                return;
+            }
             
-            // Find the constant term using Lagrange interpolation
-            BigInteger constantTerm = findConstantTerm(selectedPoints);
+            // Find the constant term with the engine best suited to this k and value size
+            BigInteger constantTerm;
+            try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.INTERPOLATE, filename)) {
+                constantTerm = findConstantTerm(points, selected, options.engine, options.verbosity);
+                span.points(selected);
+            }
             
-            System.out.println("\n" + "*".repeat(50));
-            System.out.println("*** SECRET (CONSTANT TERM): " + constantTerm + " ***");
-            System.out.println("*".repeat(50));
+            printSecret(testName, "SECRET (CONSTANT TERM)", constantTerm.toString(), normal);
             
             // Verify with additional points if available
+            boolean verified = true;
             if (points.size() > testCase.k) {
-                System.out.println("\nVerification with remaining points:");
-                verifyPolynomial(selectedPoints, points.subList(testCase.k, points.size()));
+                if (normal) {
+                    System.out.println("\nVerification with remaining points:");
+                }
+                int remaining = points.size() - testCase.k;
+                boolean exact = fingerprint == null;
+                try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.VERIFY, filename)) {
+                    if (fingerprint != null) {
+                        verified = fingerprint.verify(points.xs(), points, testCase.k);
+                        if (!verified && normal) {
+                            System.out.println("Fingerprint check failed; verifying exactly:");
+                        }
+                    }
+                    if (!verified || fingerprint == null) {
+                        exact = true;
+                        verified = verifyPolynomial(points, testCase.k, options.parallelVerify, detailed);
+                    }
+                    span.points(remaining);
+                }
+                if (!exact) {
+                    printVerificationSummary(testName, remaining + " remaining point(s) by fingerprint"
+                                             + " (false-accept probability <= " + fingerprint.falseAcceptProbability() + ")",
+                                             true, normal);
+                } else if (!detailed) {
+                    printVerificationSummary(testName, remaining + " remaining point(s)", verified, normal);
+                }
+                if (!verified) {
+                    correctErrors(points, testCase.k);
+                }
+            }
+            if (cache != null) {
+                cache.put(ResultCache.Result.of(testCase.n, testCase.k, constantTerm.toString(), verified),
+                          fileKey, canonicalKey);
             }
             
         } catch (IOException e) {
@@ -67,172 +192,399 @@ public class HashiraSecretSharing {
         }
     }
     
+    private static String canonicalKey(TestCase testCase, String context) {
+        ResultCache.Canonical canonical = new ResultCache.Canonical(context);
+        canonical.keys(testCase.n, testCase.k);
+        canonical.prime(testCase.prime);
+        for (PointData pd : testCase.points) {
+            canonical.point(pd);
+        }
+        return canonical.key();
+    }
+    
     /**
-     * Parse JSON test case using simple string parsing
+     * A result from --cache, in place of the whole computation
      */
-    private static TestCase parseJsonTestCase(String jsonContent) {
-        TestCase testCase = new TestCase();
+    private static void printCached(String testName, ResultCache.Result cached, int verbosity) {
+        boolean normal = verbosity >= NORMAL;
+        if (normal) {
+            System.out.println("n (total points): " + cached.n);
+            System.out.println("k (minimum points needed): " + cached.k);
+            System.out.println("Cached result (shares unchanged since the last run)");
+        }
+        printSecret(testName, "SECRET (CONSTANT TERM)", cached.secret, normal);
+        if (cached.n > cached.k) {
+            printVerificationSummary(testName, (cached.n - cached.k) + " remaining point(s)",
+                                     ResultCache.VERIFIED.equals(cached.status), normal);
+        }
+    }
+    
+    /**
+     * The secret as a banner, or as a single line when quiet
+     */
+    private static void printSecret(String testName, String label, String secret, boolean banner) {
+        if (!banner) {
+            System.out.println(testName + ": " + label + " = " + secret);
+            return;
+        }
+        System.out.println("\n" + "*".repeat(50));
+        System.out.println("*** " + label + ": " + secret + " ***");
+        System.out.println("*".repeat(50));
+    }
+    
+    /**
+     * One line in place of the per-point verification listing
+     */
+    private static void printVerificationSummary(String testName, String against, boolean verified, boolean normal) {
+        String prefix = normal ? "" : testName + ": ";
+        System.out.println(prefix + (verified
+            ? "verified against " + against + " ✓"
+            : "verification FAILED against " + against + " ✗"));
+    }
+    
+    /**
+     * Process every share file matched by --batch, writing one result line per file
+     */
+    static void runBatch(Options options) {
+        BatchRunner runner = new BatchRunner(options.threads, options.maxInFlight,
+                                             options.ordered, options.field, options.openCache(),
+                                             options.fingerprint());
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            long start = System.nanoTime();
+            long files = runner.run(options.batch, out);
+            System.err.printf("Processed %d files in %.1f ms, %d failed%n",
+                              files, (System.nanoTime() - start) / 1e6, runner.failures());
+        } catch (IOException e) {
+            System.err.println("Error writing batch results: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Batch interrupted");
+        }
+    }
+    
+    /**
+     * Reconstruct and verify over GF(p): shares are reduced mod p and the
+     * secret is f(0) mod p.
+     */
+    private static ResultCache.Result processInField(PrimeField field, ShareStore points, TestCase testCase,
+                                                     String testName, String filename, int verbosity) {
+        int k = Math.min(testCase.k, points.size());
+        long[] xs = points.xs();
+        long[] ys = points.residues(field);
         
-        // Parse n and k
-        testCase.n = parseIntValue(jsonContent, "n");
-        testCase.k = parseIntValue(jsonContent, "k");
+        long secret;
+        long[] verification;
+        boolean fast = k >= FastInterpolator.MIN_POINTS && FastInterpolator.supports(field, k);
+        FastInterpolator interpolator = fast ? new FastInterpolator(field) : null;
+        FieldLagrange lagrange = fast ? null : new FieldLagrange(field, k);
+        long[] coefficients = null;
+        try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.INTERPOLATE, filename)) {
+            if (fast) {
+                // Subquadratic: interpolate once, then evaluate all remaining points together
+                coefficients = interpolator.interpolate(Arrays.copyOf(xs, k), Arrays.copyOf(ys, k));
+                secret = coefficients[0];
+            } else {
+                secret = lagrange.constantTerm(xs, ys, k);
+            }
+            span.points(k);
+        }
+        try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.VERIFY, filename)) {
+            if (fast) {
+                verification = interpolator.evaluate(coefficients, Arrays.copyOfRange(xs, k, xs.length));
+            } else {
+                verification = new long[xs.length - k];
+                for (int i = k; i < xs.length; i++) {
+                    verification[i - k] = lagrange.valueAt(xs, ys, k, xs[i]);
+                }
+            }
+            span.points(verification.length);
+        }
         
-        // Parse points
-        testCase.points = new ArrayList<>();
+        boolean normal = verbosity >= NORMAL;
+        printSecret(testName, "SECRET (CONSTANT TERM) mod " + field.modulus(), Long.toString(secret), normal);
         
-        // Use regex to find point patterns
-        java.util.regex.Pattern pointPattern = java.util.regex.Pattern.compile(
-            "\"(\\d+)\":\\s*\\{[^}]*\"base\":\\s*\"(\\d+)\"[^}]*\"value\":\\s*\"([^\"]+)\"[^}]*\\}"
-        );
-        java.util.regex.Matcher matcher = pointPattern.matcher(jsonContent);
+        boolean verified = true;
+        if (xs.length > k) {
+            if (normal) {
+                System.out.println("\nVerification with remaining points in " + field + ":");
+            }
+            for (int i = k; i < xs.length; i++) {
+                long calculated = verification[i - k];
+                verified &= calculated == ys[i];
+                if (verbosity >= DETAILED) {
+                    System.out.println("Verification point (" + xs[i] + ", " + ys[i] + 
+                                     "): calculated = " + calculated + 
+                                     (calculated == ys[i] ? " ✓" : " ✗"));
+                }
+            }
+            if (verbosity < DETAILED) {
+                printVerificationSummary(testName, (xs.length - k) + " remaining point(s)", verified, normal);
+            }
+        }
+        return ResultCache.Result.of(testCase.n, testCase.k, Long.toString(secret), verified);
+    }
+    
+    /**
+     * Parse JSON test case in a single streaming pass
+     */
+    private static TestCase parseJsonTestCase(Path file) throws IOException {
+        TestCase testCase = new TestCase();
+        testCase.points = new ArrayList<>();
         
-        while (matcher.find()) {
-            int x = Integer.parseInt(matcher.group(1));
-            int base = Integer.parseInt(matcher.group(2));
-            String value = matcher.group(3);
-            testCase.points.add(new PointData(x, base, value));
+        try (ShareFileReader reader = ShareFileReader.open(file)) {
+            reader.read(new ShareFileReader.Listener() {
+                @Override
+                public void keys(int n, int k) {
+                    testCase.n = n;
+                    testCase.k = k;
+                }
+                
+                @Override
+                public void prime(long p) {
+                    testCase.prime = p;
+                }
+                
+                @Override
+                public void point(PointData point) {
+                    testCase.points.add(point);
+                }
+            });
         }
         
         return testCase;
     }
     
-    private static int parseIntValue(String jsonContent, String key) {
-        String pattern = "\"" + key + "\":\\s*(\\d+)";
-        java.util.regex.Pattern p = java.util.regex.Pattern.compile(pattern);
-        java.util.regex.Matcher m = p.matcher(jsonContent);
-        if (m.find()) {
-            return Integer.parseInt(m.group(1));
-        }
-        return 0;
-    }
-    
     /**
-     * Convert points from various bases to decimal
+     * Convert points from various bases to decimal, packed in a share store
      */
-    private static List<Point> convertPointsToDecimal(List<PointData> pointData) {
-        List<Point> points = new ArrayList<>();
+    private static ShareStore convertPointsToDecimal(List<PointData> pointData, boolean detailed) {
+        ShareStore points = new ShareStore(pointData.size(), 16 * pointData.size());
         
         for (PointData pd : pointData) {
-            BigInteger y = convertToDecimal(pd.value, pd.base);
-            points.add(new Point(BigInteger.valueOf(pd.x), y));
-            System.out.println("Point " + pd.x + ": base " + pd.base + " value '" + 
-                             pd.value + "' = " + y);
+            points.add(pd);
+            if (detailed) {
+                System.out.println("Point " + pd.x + ": base " + pd.base + " value '" + 
+                                 pd.value + "' = " + points.y(points.size() - 1));
+            }
         }
         
         return points;
     }
     
     /**
-     * Convert a number from given base to decimal
+     * Find the constant term using Lagrange interpolation
+     * The constant term is f(0) where f is the polynomial.
+     * The engine is chosen from k and the size of the y-values unless one
+     * is forced; the coefficients are listed for small k, and only at the
+     * detailed verbosity level.
      */
-    private static BigInteger convertToDecimal(String value, int base) {
-        BigInteger result = BigInteger.ZERO;
-        BigInteger baseValue = BigInteger.valueOf(base);
+    private static BigInteger findConstantTerm(ShareStore points, int k, ReconstructionEngine engine, int verbosity) {
+        long[] xs = points.xs(k);
+        long[] smallYs = points.longYs(k);
+        BigInteger[] ys = smallYs == null ? points.ys(k) : null;
+        if (engine == null) {
+            engine = smallYs != null
+                ? EngineSelector.shared().select(xs, smallYs)
+                : EngineSelector.shared().select(xs, ys);
+        }
+        if (verbosity >= NORMAL) {
+            System.out.println("\nCalculating constant term using Lagrange interpolation (" + engine.name() + " engine)...");
+        }
         
-        for (int i = 0; i < value.length(); i++) {
-            char digit = value.charAt(i);
-            int digitValue;
-            
-            if (digit >= '0' && digit <= '9') {
-                digitValue = digit - '0';
-            } else if (digit >= 'a' && digit <= 'z') {
-                digitValue = digit - 'a' + 10;
-            } else if (digit >= 'A' && digit <= 'Z') {
-                digitValue = digit - 'A' + 10;
-            } else {
-                throw new IllegalArgumentException("Invalid digit: " + digit);
-            }
-            
-            if (digitValue >= base) {
-                throw new IllegalArgumentException("Digit " + digit + " is invalid for base " + base);
+        if (verbosity >= DETAILED && xs.length <= MAX_LISTED_COEFFICIENTS) {
+            BarycentricWeights weights = LagrangeCache.shared().weightsFor(xs);
+            BigInteger[] coefficients = weights.coefficientsAt(0);
+            for (int i = 0; i < weights.size(); i++) {
+                System.out.println("Point " + weights.x(i) + ": L" + i + "(0) = " + 
+                                 coefficients[i] + "/" + weights.denominator());
             }
-            
-            result = result.multiply(baseValue).add(BigInteger.valueOf(digitValue));
         }
         
-        return result;
+        return smallYs != null ? engine.constantTerm(xs, smallYs) : engine.constantTerm(xs, ys);
     }
     
     /**
-     * Find the constant term using Lagrange interpolation
-     * The constant term is f(0) where f is the polynomial
+     * Verify the polynomial with additional points.
+     * The polynomial is built once in Newton form, so each point costs one O(k) Horner pass.
+     * The first k points define it; the rest are checked.
+     * Returns true if every point lies on the polynomial.
      */
-    private static BigInteger findConstantTerm(List<Point> points) {
-        System.out.println("\nCalculating constant term using Lagrange interpolation...");
+    private static boolean verifyPolynomial(ShareStore points, int k, boolean parallel, boolean detailed) {
+        int n = points.size();
+        long[] usedXs = points.xs(k);
+        long[] xs = Arrays.copyOfRange(points.xs(), k, n);
+        long[] smallYs = points.longYs(k);
+        long[] ys = smallYs != null && k <= EngineSelector.LONG_MAX_K ? points.longYs(k, n) : null;
+        if (ys != null) {
+            try {
+                return verifyInLongs(usedXs, smallYs, xs, ys, detailed);
+            } catch (ArithmeticException overflow) {
+                // fall back to exact arithmetic below
+            }
+        }
         
-        // Calculate f(0) using Lagrange interpolation
-        BigInteger result = BigInteger.ZERO;
+        NewtonPolynomial polynomial = new NewtonPolynomial(usedXs, points.ys(k));
+        BigInteger[] scaled = polynomial.scaledValuesAt(xs, parallel);
+        BigInteger denominator = polynomial.denominator();
+        boolean allMatch = true;
         
-        for (int i = 0; i < points.size(); i++) {
-            Point pi = points.get(i);
-            
-            // Calculate Lagrange basis polynomial Li(0)
-            BigInteger numerator = BigInteger.ONE;
-            BigInteger denominator = BigInteger.ONE;
-            
-            for (int j = 0; j < points.size(); j++) {
-                if (i != j) {
-                    Point pj = points.get(j);
-                    // Li(0) = product of (0 - xj) / (xi - xj) for all j != i
-                    numerator = numerator.multiply(pj.x.negate()); // (0 - xj) = -xj
-                    denominator = denominator.multiply(pi.x.subtract(pj.x)); // (xi - xj)
-                }
+        for (int i = 0; i < xs.length; i++) {
+            BigInteger y = points.y(k + i);
+            boolean matches = scaled[i].equals(y.multiply(denominator));
+            if (detailed) {
+                BigInteger[] qr = scaled[i].divideAndRemainder(denominator);
+                String calculatedY = qr[1].signum() == 0 ? qr[0].toString() : scaled[i] + "/" + denominator;
+                System.out.println("Verification point (" + xs[i] + ", " + y + 
+                                 "): calculated = " + calculatedY + 
+                                 (matches ? " ✓" : " ✗"));
             }
-            
-            // Add yi * Li(0) to result
-            BigInteger term = pi.y.multiply(numerator).divide(denominator);
-            result = result.add(term);
-            
-            System.out.println("Point " + pi.x + ": L" + i + "(0) = " + 
-                             numerator + "/" + denominator + ", term = " + term);
+            allMatch &= matches;
         }
-        
-        return result;
+        return allMatch;
+    }
+    
+    /**
+     * Verification entirely in long arithmetic; every value is computed
+     * before anything is printed, so an overflow can fall back cleanly.
+     */
+    private static boolean verifyInLongs(long[] xs, long[] ys, long[] verificationXs, long[] verificationYs,
+                                         boolean detailed) {
+        long[] calculated = new long[verificationXs.length];
+        for (int i = 0; i < calculated.length; i++) {
+            calculated[i] = LongLagrange.valueAt(xs, ys, xs.length, verificationXs[i]);
+        }
+        boolean allMatch = true;
+        for (int i = 0; i < calculated.length; i++) {
+            boolean matches = calculated[i] == verificationYs[i];
+            if (detailed) {
+                System.out.println("Verification point (" + verificationXs[i] + ", " + verificationYs[i] + 
+                                 "): calculated = " + calculated[i] + 
+                                 (matches ? " ✓" : " ✗"));
+            }
+            allMatch &= matches;
+        }
+        return allMatch;
     }
     
     /**
-     * Verify the polynomial with additional points
+     * Locate corrupt shares with Berlekamp-Welch decoding and recover the secret
+     * from the remaining ones.
      */
-    private static void verifyPolynomial(List<Point> usedPoints, List<Point> verificationPoints) {
-        for (Point vp : verificationPoints) {
-            BigInteger calculatedY = evaluatePolynomial(usedPoints, vp.x);
-            boolean matches = calculatedY.equals(vp.y);
-            System.out.println("Verification point (" + vp.x + ", " + vp.y + 
-                             "): calculated = " + calculatedY + 
-                             (matches ? " ✓" : " ✗"));
+    private static void correctErrors(ShareStore points, int k) {
+        int correctable = BerlekampWelch.correctable(points.size(), k);
+        System.out.println("\nReed-Solomon decoding (corrects up to " + correctable + " corrupt shares):");
+        if (correctable == 0) {
+            System.out.println("Not enough extra shares to locate errors");
+            return;
+        }
+        try {
+            BerlekampWelch.Result result = new BerlekampWelch().decode(points.xs(), points.ys(points.size()), k);
+            System.out.println("Corrupt shares at x = " + Arrays.toString(result.corruptXs));
+            System.out.println("*** CORRECTED SECRET (CONSTANT TERM): " + result.secret + " ***");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
         }
     }
     
     /**
-     * Evaluate polynomial at point x using Lagrange interpolation
+     * Command-line options
      */
-    private static BigInteger evaluatePolynomial(List<Point> points, BigInteger x) {
-        BigInteger result = BigInteger.ZERO;
+    static class Options {
+        /** Reconstruct over GF(p) instead of the integers */
+        PrimeField field;
+        /** Reconstruction engine to use instead of the automatic choice */
+        ReconstructionEngine engine;
+        /** Spread verification of the remaining points across cores */
+        boolean parallelVerify;
+        /** Directory or glob of share files to process instead of the bundled test cases */
+        String batch;
+        /** Loopback port to serve reconstructions on (0 for any), or -1 to solve files */
+        int serve = -1;
+        /** Worker threads for batch mode */
+        int threads = Runtime.getRuntime().availableProcessors();
+        /** Files parsed or awaiting output at any one time in batch mode */
+        int maxInFlight = 4 * Runtime.getRuntime().availableProcessors();
+        /** Write batch results in input order rather than as they complete */
+        boolean ordered = true;
+        /** QUIET, NORMAL or DETAILED */
+        int verbosity = DETAILED;
+        /** File to write per-phase latency and allocation histograms to at exit */
+        Path metrics;
+        /** Directory of cached results, or null to always recompute */
+        Path cache;
+        /** Verify extra points by fingerprints first, exactly only if that fails */
+        boolean fastVerify;
+        /** Bound on the fingerprint check accepting inconsistent shares */
+        double falseAccept = FingerprintVerifier.DEFAULT_FALSE_ACCEPT_PROBABILITY;
         
-        for (int i = 0; i < points.size(); i++) {
-            Point pi = points.get(i);
-            
-            BigInteger numerator = BigInteger.ONE;
-            BigInteger denominator = BigInteger.ONE;
-            
-            for (int j = 0; j < points.size(); j++) {
-                if (i != j) {
-                    Point pj = points.get(j);
-                    numerator = numerator.multiply(x.subtract(pj.x));
-                    denominator = denominator.multiply(pi.x.subtract(pj.x));
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                if ("--field".equals(args[i]) && i + 1 < args.length) {
+                    options.field = PrimeField.parse(args[++i]);
+                } else if ("--engine".equals(args[i]) && i + 1 < args.length) {
+                    options.engine = EngineSelector.engine(args[++i]);
+                } else if ("--multimodular".equals(args[i])) {
+                    options.engine = EngineSelector.PARALLEL;
+                } else if ("--parallel-verify".equals(args[i])) {
+                    options.parallelVerify = true;
+                } else if ("--batch".equals(args[i]) && i + 1 < args.length) {
+                    options.batch = args[++i];
+                } else if ("--serve".equals(args[i]) && i + 1 < args.length) {
+                    options.serve = Integer.parseInt(args[++i]);
+                } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                    options.threads = Integer.parseInt(args[++i]);
+                } else if ("--max-in-flight".equals(args[i]) && i + 1 < args.length) {
+                    options.maxInFlight = Integer.parseInt(args[++i]);
+                } else if ("--unordered".equals(args[i])) {
+                    options.ordered = false;
+                } else if ("--verbosity".equals(args[i]) && i + 1 < args.length) {
+                    options.verbosity = Integer.parseInt(args[++i]);
+                    if (options.verbosity < QUIET || options.verbosity > DETAILED) {
+                        throw new IllegalArgumentException("--verbosity must be 0, 1 or 2");
+                    }
+                } else if ("--quiet".equals(args[i])) {
+                    options.verbosity = QUIET;
+                } else if ("--metrics".equals(args[i]) && i + 1 < args.length) {
+                    options.metrics = Paths.get(args[++i]);
+                } else if ("--cache".equals(args[i]) && i + 1 < args.length) {
+                    options.cache = Paths.get(args[++i]);
+                } else if ("--fast-verify".equals(args[i])) {
+                    options.fastVerify = true;
+                } else if ("--false-accept".equals(args[i]) && i + 1 < args.length) {
+                    options.fastVerify = true;
+                    options.falseAccept = Double.parseDouble(args[++i]);
                 }
             }
-            
-            BigInteger term = pi.y.multiply(numerator).divide(denominator);
-            result = result.add(term);
+            return options;
+        }
+        
+        /** The fingerprint verifier for --fast-verify, or null for exact verification */
+        FingerprintVerifier fingerprint() {
+            return fastVerify ? new FingerprintVerifier(falseAccept) : null;
         }
         
-        return result;
+        /** The --cache directory opened for use, or null if caching is off or it cannot be opened */
+        ResultCache openCache() {
+            if (cache == null) {
+                return null;
+            }
+            try {
+                return ResultCache.open(cache);
+            } catch (IOException e) {
+                System.err.println("Result cache " + cache + " unavailable: " + e.getMessage());
+                return null;
+            }
+        }
+
     }
     
     // Data classes
     static class TestCase {
         int n, k;
+        /** Field prime declared by the file, or 0 for integer shares */
+        long prime;
         List<PointData> points;
     }
     
@@ -247,12 +599,44 @@ public class HashiraSecretSharing {
         }
     }
     
+    /**
+     * A share with x and, whenever it fits, y stored as primitives;
+     * bigY is only set for y-values wider than a long.
+     */
     static class Point {
-        BigInteger x, y;
+        final long x;
+        final long y;
+        final BigInteger bigY;
         
-        Point(BigInteger x, BigInteger y) {
+        Point(long x, long y) {
             this.x = x;
             this.y = y;
+            this.bigY = null;
+        }
+        
+        Point(long x, BigInteger y) {
+            this.x = x;
+            this.y = y.bitLength() < Long.SIZE ? y.longValue() : 0;
+            this.bigY = y.bitLength() < Long.SIZE ? null : y;
+        }
+        
+        /** Convert a parsed share, straight to a long when its digits allow. */
+        static Point of(PointData pd) {
+            return BaseConverter.fitsInLong(pd.value, pd.base)
+                ? new Point(pd.x, BaseConverter.toLong(pd.value, pd.base))
+                : new Point(pd.x, BaseConverter.toBigInteger(pd.value, pd.base));
+        }
+        
+        boolean isSmall() {
+            return bigY == null;
+        }
+        
+        BigInteger y() {
+            return bigY != null ? bigY : BigInteger.valueOf(y);
+        }
+        
+        String yString() {
+            return bigY != null ? bigY.toString() : Long.toString(y);
         }
     }
 }
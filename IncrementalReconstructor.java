@@ -0,0 +1,132 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reconstructs a secret from shares that arrive one at a time.
+ *
+ * Until the threshold k is reached, each new share updates the barycentric
+ * denominators d_i = prod(x_i - x_j) of the shares seen so far with O(k)
+ * small multiplications, so nothing is recomputed from scratch. The secret
+ * is available as soon as the k-th share is added. Every share after that
+ * is checked against the interpolating polynomial in O(k). Safe for
+ * concurrent use.
+ *
+ * This is a library entry point for callers that receive shares over time.
+ * The bundled front ends read whole share files, whose keys may follow the
+ * points, so they interpolate with {@link EngineSelector} instead.
+ */
+public class IncrementalReconstructor {
+
+    /**
+     * Outcome of adding one share.
+     */
+    public enum Status {
+        /** Fewer than k shares so far. */
+        COLLECTING,
+        /** This share completed the threshold; the secret is available. */
+        RECONSTRUCTED,
+        /** An extra share that lies on the polynomial. */
+        CONSISTENT,
+        /** An extra share that does not lie on the polynomial. */
+        INCONSISTENT
+    }
+
+    private final int k;
+    private final long[] xs;
+    private final BigInteger[] ys;
+    private final BigInteger[] denominators;
+    private int count;
+    private BarycentricWeights weights;
+    private BigInteger secret;
+    private final List<Long> inconsistentXs = new ArrayList<>();
+
+    public IncrementalReconstructor(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + k);
+        }
+        this.k = k;
+        this.xs = new long[k];
+        this.ys = new BigInteger[k];
+        this.denominators = new BigInteger[k];
+    }
+
+    /**
+     * Add the share (x, y).
+     *
+     * Nothing changes if this throws.
+     *
+     * @throws IllegalArgumentException if x repeats one of the first k shares
+     * @throws ArithmeticException if x - x_i overflows a long
+     */
+    public synchronized Status add(long x, BigInteger y) {
+        if (weights != null) {
+            return check(x, y);
+        }
+        for (int i = 0; i < count; i++) {
+            if (xs[i] == x) {
+                throw new IllegalArgumentException("Duplicate x-coordinate: " + x);
+            }
+        }
+
+        // Work on copies and commit only once nothing more can throw
+        BigInteger[] updated = new BigInteger[count + 1];
+        BigInteger product = BigInteger.ONE;
+        for (int i = 0; i < count; i++) {
+            long diff = Math.subtractExact(x, xs[i]);
+            product = product.multiply(BigInteger.valueOf(diff));
+            updated[i] = denominators[i].multiply(BigInteger.valueOf(-diff));
+        }
+        updated[count] = product;
+
+        // Slot count is unused until count moves past it
+        xs[count] = x;
+        ys[count] = y;
+        BarycentricWeights completed = null;
+        BigInteger constantTerm = null;
+        if (count + 1 == k) {
+            completed = new BarycentricWeights(xs, updated);
+            constantTerm = completed.constantTerm(ys);
+        }
+
+        System.arraycopy(updated, 0, denominators, 0, count + 1);
+        count++;
+        if (completed == null) {
+            return Status.COLLECTING;
+        }
+        weights = completed;
+        secret = constantTerm;
+        return Status.RECONSTRUCTED;
+    }
+
+    public int threshold() {
+        return k;
+    }
+
+    public synchronized boolean isComplete() {
+        return weights != null;
+    }
+
+    /**
+     * f(0), or null while fewer than k shares have arrived.
+     */
+    public synchronized BigInteger secret() {
+        return secret;
+    }
+
+    /**
+     * x-coordinates of extra shares that did not match the polynomial.
+     */
+    public synchronized List<Long> inconsistentXs() {
+        return new ArrayList<>(inconsistentXs);
+    }
+
+    private Status check(long x, BigInteger y) {
+        boolean matches = weights.scaledValueAt(ys, x).equals(y.multiply(weights.denominator()));
+        if (!matches) {
+            inconsistentXs.add(x);
+            return Status.INCONSISTENT;
+        }
+        return Status.CONSISTENT;
+    }
+}
@@ -0,0 +1,244 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Pull tokenizer for JSON read straight off a channel through a fixed-size
+ * buffer, for readers that walk one known layout and skip everything else.
+ * Only the current token is ever held, so documents of any size can be read
+ * in bounded memory.
+ */
+abstract class JsonTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final StringBuilder text = new StringBuilder();
+    private int peeked = -1;
+    private long offset;
+
+    JsonTokenizer(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** An integer written either as a JSON number or as a quoted string. */
+    int readInt() throws IOException {
+        String s = peekToken() == '"' ? readString() : readScalar();
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            throw error("Expected an integer but found '" + s + "'");
+        }
+    }
+
+    /** A long written either as a JSON number or as a quoted string. */
+    long readLong() throws IOException {
+        String s = peekToken() == '"' ? readString() : readScalar();
+        try {
+            return Long.parseLong(s.trim());
+        } catch (NumberFormatException e) {
+            throw error("Expected an integer but found '" + s + "'");
+        }
+    }
+
+    String readString() throws IOException {
+        expect('"');
+        text.setLength(0);
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c == '\\') {
+                text.append(readEscape());
+            } else if (c < 0) {
+                throw error("Unterminated string");
+            } else if (c < 0x80) {
+                text.append((char) c);
+            } else {
+                text.appendCodePoint(readUtf8(c));
+            }
+        }
+    }
+
+    /** The rest of a multi-byte UTF-8 sequence starting with lead. */
+    private int readUtf8(int lead) throws IOException {
+        int extra = lead >= 0xF0 ? 3 : lead >= 0xE0 ? 2 : lead >= 0xC0 ? 1 : -1;
+        if (extra < 0 || lead >= 0xF8) {
+            throw error("Invalid UTF-8");
+        }
+        int code = lead & (0x3F >> extra);
+        for (int i = 0; i < extra; i++) {
+            int c = next();
+            if ((c & 0xC0) != 0x80) {
+                throw error("Invalid UTF-8");
+            }
+            code = code << 6 | (c & 0x3F);
+        }
+        if (!Character.isValidCodePoint(code)) {
+            throw error("Invalid UTF-8");
+        }
+        return code;
+    }
+
+    private char readEscape() throws IOException {
+        int c = next();
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) {
+                        throw error("Invalid unicode escape");
+                    }
+                    code = code * 16 + digit;
+                }
+                return (char) code;
+            default:
+                throw error("Invalid escape character");
+        }
+    }
+
+    /** A number or literal, up to the next structural character. */
+    String readScalar() throws IOException {
+        peekToken();
+        text.setLength(0);
+        while (true) {
+            int c = peek();
+            if (c < 0 || c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                break;
+            }
+            text.append((char) next());
+        }
+        if (text.length() == 0) {
+            throw error("Expected a value");
+        }
+        return text.toString();
+    }
+
+    void skipValue() throws IOException {
+        int c = peekToken();
+        if (c == '"') {
+            skipString();
+        } else if (c == '{' || c == '[') {
+            skipContainer();
+        } else {
+            readScalar();
+        }
+    }
+
+    private void skipString() throws IOException {
+        expect('"');
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                next();
+            } else if (c < 0) {
+                throw error("Unterminated string");
+            }
+        }
+    }
+
+    private void skipContainer() throws IOException {
+        int depth = 0;
+        do {
+            int c = peekToken();
+            if (c == '"') {
+                skipString();
+                continue;
+            }
+            next();
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (c < 0) {
+                throw error("Unexpected end of input");
+            }
+        } while (depth > 0);
+    }
+
+    /** Consume a ',' (more members follow) or the closing character. */
+    boolean nextMember(char close) throws IOException {
+        int c = peekToken();
+        next();
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw error("Expected ',' or '" + close + "'");
+    }
+
+    void expect(char expected) throws IOException {
+        if (peekToken() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        next();
+    }
+
+    /** Skip whitespace and return the next character without consuming it. */
+    int peekToken() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c < 0 || !Character.isWhitespace(c)) {
+                return c;
+            }
+            next();
+        }
+    }
+
+    private int peek() throws IOException {
+        if (peeked < 0) {
+            peeked = fill();
+        }
+        return peeked;
+    }
+
+    int next() throws IOException {
+        int c = peek();
+        peeked = -1;
+        offset++;
+        return c;
+    }
+
+    private int fill() throws IOException {
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            if (read < 0) {
+                return -1;
+            }
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    IOException error(String message) {
+        return new IOException(message + " at byte " + offset);
+    }
+}
@@ -0,0 +1,149 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of Lagrange coefficient tables, keyed by the sorted
+ * x-coordinate set.
+ *
+ * Shares produced from the same layout (typically x = 1..n) reuse one
+ * precomputed table of L_i(0), so reconstructing a secret reduces to a
+ * k-term dot product with the y-values. Safe for concurrent use.
+ */
+public class LagrangeCache {
+
+    private static final LagrangeCache SHARED =
+        new LagrangeCache(Integer.getInteger("hashira.lagrangeCache.size", 256));
+
+    private final int maxEntries;
+    private final Map<XSet, BarycentricWeights> entries;
+    private long hits;
+    private long misses;
+
+    public LagrangeCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<XSet, BarycentricWeights>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<XSet, BarycentricWeights> eldest) {
+                return size() > LagrangeCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Process-wide cache, sized by the hashira.lagrangeCache.size system property.
+     */
+    public static LagrangeCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Weights for the given x-set, indexed in ascending x order.
+     */
+    public BarycentricWeights weightsFor(long[] xs) {
+        long[] sorted = xs.clone();
+        Arrays.sort(sorted);
+        XSet key = new XSet(sorted);
+
+        synchronized (this) {
+            BarycentricWeights weights = entries.get(key);
+            if (weights != null) {
+                hits++;
+                return weights;
+            }
+            misses++;
+        }
+
+        // Build outside the lock; a concurrent miss on the same key only costs a duplicate build
+        BarycentricWeights weights = new BarycentricWeights(sorted);
+        weights.prepareConstantTerm();
+        synchronized (this) {
+            BarycentricWeights existing = entries.putIfAbsent(key, weights);
+            return existing != null ? existing : weights;
+        }
+    }
+
+    /**
+     * Whether weights for this x-set are already cached; does not count as a hit or miss.
+     */
+    public boolean contains(long[] xs) {
+        long[] sorted = xs.clone();
+        Arrays.sort(sorted);
+        synchronized (this) {
+            return entries.containsKey(new XSet(sorted));
+        }
+    }
+
+    /**
+     * f(0) for shares given in any order.
+     */
+    public BigInteger constantTerm(long[] xs, BigInteger[] ys) {
+        BarycentricWeights weights = weightsFor(xs);
+        return weights.constantTerm(alignToSorted(xs, ys));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Reorder ys to match ascending xs; returns ys itself when already sorted.
+     */
+    static BigInteger[] alignToSorted(long[] xs, BigInteger[] ys) {
+        boolean sorted = true;
+        for (int i = 1; i < xs.length && sorted; i++) {
+            sorted = xs[i - 1] < xs[i];
+        }
+        if (sorted) {
+            return ys;
+        }
+
+        Integer[] order = new Integer[xs.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(xs[a], xs[b]));
+        BigInteger[] aligned = new BigInteger[ys.length];
+        for (int i = 0; i < order.length; i++) {
+            aligned[i] = ys[order[i]];
+        }
+        return aligned;
+    }
+
+    /** Sorted x-coordinates with a precomputed hash. */
+    private static final class XSet {
+        private final long[] xs;
+        private final int hash;
+
+        XSet(long[] xs) {
+            this.xs = xs;
+            this.hash = Arrays.hashCode(xs);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof XSet && Arrays.equals(xs, ((XSet) o).xs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Lagrange interpolation in overflow-checked long arithmetic.
+ *
+ * Small shares (as in the bundled test cases) have x, y and every Lagrange
+ * numerator and denominator well inside 64 bits, so there is no need for
+ * BigInteger. Each L_i(x) is kept as a reduced fraction, and the sum is
+ * accumulated as one running fraction, so nothing is allocated. Every
+ * operation uses Math.*Exact. An ArithmeticException means the caller
+ * should redo the work with BigInteger; that covers overflow and a
+ * non-integer result, which the exact engines report properly.
+ */
+public final class LongLagrange {
+
+    private LongLagrange() {
+    }
+
+    /**
+     * f(0) for the polynomial through the first k points.
+     *
+     * @throws ArithmeticException on overflow or if f(0) is not an integer
+     */
+    public static long constantTerm(long[] xs, long[] ys, int k) {
+        return valueAt(xs, ys, k, 0);
+    }
+
+    /**
+     * f(x) for the polynomial through the first k points.
+     *
+     * @throws ArithmeticException on overflow or if f(x) is not an integer
+     */
+    public static long valueAt(long[] xs, long[] ys, int k, long x) {
+        long sumNum = 0;
+        long sumDen = 1;
+        for (int i = 0; i < k; i++) {
+            if (xs[i] == x) {
+                return ys[i];
+            }
+            long num = 1;
+            long den = 1;
+            for (int j = 0; j < k; j++) {
+                if (j == i) {
+                    continue;
+                }
+                long diff = Math.subtractExact(xs[i], xs[j]);
+                if (diff == 0) {
+                    throw new IllegalArgumentException("Duplicate x-coordinate: " + xs[i]);
+                }
+                num = Math.multiplyExact(num, Math.subtractExact(x, xs[j]));
+                den = Math.multiplyExact(den, diff);
+                long g = gcd(num, den);
+                num /= g;
+                den /= g;
+            }
+            if (den < 0) {
+                num = Math.negateExact(num);
+                den = Math.negateExact(den);
+            }
+
+            // term = y * num / den, reduced before multiplying
+            long y = ys[i];
+            long g = gcd(y, den);
+            long termNum = Math.multiplyExact(y / g, num);
+            long termDen = den / g;
+
+            // sum += term, over lcm(sumDen, termDen)
+            g = gcd(sumDen, termDen);
+            sumNum = Math.addExact(Math.multiplyExact(sumNum, termDen / g),
+                                   Math.multiplyExact(termNum, sumDen / g));
+            sumDen = Math.multiplyExact(sumDen / g, termDen);
+            g = gcd(sumNum, sumDen);
+            sumNum /= g;
+            sumDen /= g;
+        }
+        if (sumDen != 1) {
+            throw new ArithmeticException("f(" + x + ") = " + sumNum + "/" + sumDen + " is not an integer");
+        }
+        return sumNum;
+    }
+
+    /** gcd(|a|, |b|), or 1 if both are zero. */
+    static long gcd(long a, long b) {
+        a = Math.absExact(a);
+        b = Math.absExact(b);
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a == 0 ? 1 : a;
+    }
+}
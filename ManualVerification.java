@@ -1,3 +1,5 @@
+import java.math.BigInteger;
+
 /**
  * Manual verification of Test Case 1
  * Points: (1,4), (2,7), (3,12)
@@ -62,5 +64,11 @@ public class ManualVerification {
             double result = a*x*x + b*x + c;
             System.out.println("f(" + x + ") = " + result + " (expected " + y + ")");
         }
+        
+        // Cross-check against the solver's own reconstruction
+        long[] xs = {1, 2, 3};
+        BigInteger[] ys = {BigInteger.valueOf(4), BigInteger.valueOf(7), BigInteger.valueOf(12)};
+        ReconstructionEngine engine = EngineSelector.shared().select(xs, ys);
+        System.out.println("\nSolver (" + engine.name() + " engine): c = " + engine.constantTerm(xs, ys));
     }
 }
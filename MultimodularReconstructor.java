@@ -0,0 +1,378 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Exact reconstruction of f(0) by Chinese remaindering.
+ *
+ * f(0) is computed modulo several independent primes just below 2^62, each
+ * on its own fork-join task using {@link FieldLagrange}. Each y is split
+ * into 32-bit words once per call and reduced mod every prime with word
+ * arithmetic, so no BigInteger is built per prime. Each worker thread keeps
+ * its reduced-y buffer and one FieldLagrange per prime, whose inverted
+ * denominators carry over to the next call with the same x-set.
+ * The residues are then lifted back to the integer secret with Garner's
+ * algorithm. A Hadamard-style bound decides how many primes are needed:
+ *
+ * <pre>
+ * |f(0)| &lt;= sum |y_i| * |L_i(0)| &lt;= k * max|y| * max |L_i(0)|,
+ * |L_i(0)| = prod |x_j| / |x_i - x_j|
+ * </pre>
+ *
+ * with the logarithms of the coefficient magnitudes summed in doubles,
+ * plus a few bits of slack for rounding. The lifted value is
+ * taken in the symmetric range, so negative secrets come out negative.
+ * One extra prime is always used as a check: if f(0) is not an integer, or
+ * the bound was exceeded, the lift disagrees with it and the call fails
+ * instead of returning a wrong secret.
+ *
+ * From {@link FastInterpolator#MIN_POINTS} shares up, the primes are
+ * chosen congruent to 1 mod 2^32, and each residue is computed with the
+ * O(k log^2 k) {@link FastInterpolator} instead of the quadratic loop.
+ */
+public class MultimodularReconstructor {
+
+    /** Every prime used is above 2^61, so each contributes at least 61 bits. */
+    private static final int BITS_PER_PRIME = 61;
+
+    private static final int SLACK_BITS = 8;
+
+    private static final double LN_2 = Math.log(2);
+
+    /** More primes than this means a bound no real share set produces. */
+    private static final int MAX_PRIMES = 1 << 20;
+
+    /** Primes used from FastInterpolator.MIN_POINTS shares up have p - 1 divisible by 2^NTT_BITS. */
+    private static final int NTT_BITS = 32;
+
+    private static final List<PrimeField> PRIMES = new ArrayList<>();
+    private static final List<PrimeField> NTT_PRIMES = new ArrayList<>();
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final ForkJoinPool pool;
+
+    public MultimodularReconstructor() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reconstructor on the given pool, or on the calling thread if pool is null.
+     */
+    public MultimodularReconstructor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Number of primes needed for the given shares, not counting the check prime.
+     */
+    public static int primesNeeded(long[] xs, BigInteger[] ys) {
+        int maxYBits = 0;
+        for (BigInteger y : ys) {
+            maxYBits = Math.max(maxYBits, y.bitLength());
+        }
+        return primesNeeded(xs, maxYBits);
+    }
+
+    /**
+     * Number of primes needed for y-values of up to maxYBits bits, not counting the check prime.
+     *
+     * @throws IllegalArgumentException if x-coordinates repeat, or the bound is absurdly large
+     */
+    public static int primesNeeded(long[] xs, int maxYBits) {
+        int k = xs.length;
+        double[] logX = new double[k];
+        for (int i = 0; i < k; i++) {
+            logX[i] = log2(Math.abs((double) xs[i]));
+        }
+
+        double maxLogCoefficient = k >= FastInterpolator.MIN_POINTS
+            ? rankBound(xs, logX)
+            : pairwiseBound(xs, logX);
+
+        // Slack for rounding in the logarithms, plus one bit for the sign
+        double bits = maxYBits + maxLogCoefficient + log2(k) + SLACK_BITS + 1;
+        if (Double.isNaN(bits) || bits == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("Duplicate x-coordinates");
+        }
+        double primes = Math.ceil(bits / BITS_PER_PRIME);
+        if (primes > MAX_PRIMES) {
+            throw new IllegalArgumentException("f(0) bound of " + (long) bits + " bits needs too many primes");
+        }
+        return Math.max(1, (int) primes);
+    }
+
+    /** max log2 |L_i(0)|, summing every pairwise difference. */
+    private static double pairwiseBound(long[] xs, double[] logX) {
+        int k = xs.length;
+        double maxLogCoefficient = 0;
+        for (int i = 0; i < k; i++) {
+            double log = 0;
+            for (int j = 0; j < k; j++) {
+                if (j != i) {
+                    log += logX[j] - log2Difference(xs[i], xs[j]);
+                }
+            }
+            maxLogCoefficient = Math.max(maxLogCoefficient, log);
+        }
+        return maxLogCoefficient;
+    }
+
+    /**
+     * Upper bound on max log2 |L_i(0)| in O(k log k): distinct integers of
+     * ranks r and s differ by at least |r - s|, so
+     * prod |x_i - x_j| &gt;= r! (k - 1 - r)! for the point of rank r.
+     */
+    private static double rankBound(long[] xs, double[] logX) {
+        int k = xs.length;
+        double[] logFactorial = new double[k];
+        for (int i = 1; i < k; i++) {
+            logFactorial[i] = logFactorial[i - 1] + log2(i);
+        }
+        int zeros = 0;
+        double sumLogX = 0;
+        for (int i = 0; i < k; i++) {
+            if (xs[i] == 0) {
+                zeros++;
+            } else {
+                sumLogX += logX[i];
+            }
+        }
+        if (zeros > 0) {
+            // Only the basis polynomial of the zero node is nonzero at 0, and it is 1 there
+            return 0;
+        }
+
+        long[] sorted = xs.clone();
+        Arrays.sort(sorted);
+        double maxLogCoefficient = 0;
+        for (int rank = 0; rank < k; rank++) {
+            double log = sumLogX - log2(Math.abs((double) sorted[rank]))
+                - logFactorial[rank] - logFactorial[k - 1 - rank];
+            maxLogCoefficient = Math.max(maxLogCoefficient, log);
+        }
+        return maxLogCoefficient;
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / LN_2;
+    }
+
+    /**
+     * log2 |a - b|, subtracting exactly before rounding: x-coordinates above
+     * 2^53 that differ by little would otherwise round to a difference of 0.
+     */
+    private static double log2Difference(long a, long b) {
+        double difference;
+        try {
+            difference = Math.subtractExact(a, b);
+        } catch (ArithmeticException overflow) {
+            difference = BigInteger.valueOf(a).subtract(BigInteger.valueOf(b)).doubleValue();
+        }
+        return log2(Math.abs(difference));
+    }
+
+    /**
+     * f(0) for the given shares.
+     *
+     * @throws ArithmeticException if f(0) is not an integer
+     */
+    public BigInteger constantTerm(long[] xs, BigInteger[] ys) {
+        Words words = new Words(ys);
+        return constantTerm(xs, primesNeeded(xs, ys), words::residue);
+    }
+
+    /**
+     * f(0) through the first k points of a store, reducing each y straight
+     * from its packed bytes.
+     *
+     * @throws ArithmeticException if f(0) is not an integer
+     */
+    public BigInteger constantTerm(ShareStore shares, int k) {
+        long[] xs = shares.xs(k);
+        return constantTerm(xs, primesNeeded(xs, shares.maxBitLength(k)), (field, j) -> shares.residue(j, field));
+    }
+
+    /** y_j mod p as a canonical residue */
+    private interface Residues {
+        long of(PrimeField field, int j);
+    }
+
+    /**
+     * y-values split into big-endian 32-bit words once, so that each prime
+     * reduces them with word arithmetic rather than BigInteger.mod.
+     * Values that fit in a long are kept as they are.
+     */
+    private static final class Words {
+        private final long[] small;
+        private final int[][] magnitudes;
+        private final boolean[] negative;
+
+        Words(BigInteger[] ys) {
+            int k = ys.length;
+            small = new long[k];
+            magnitudes = new int[k][];
+            negative = new boolean[k];
+            for (int j = 0; j < k; j++) {
+                BigInteger y = ys[j];
+                if (y.bitLength() < Long.SIZE) {
+                    small[j] = y.longValue();
+                    continue;
+                }
+                negative[j] = y.signum() < 0;
+                byte[] bytes = y.abs().toByteArray();
+                int[] words = new int[(bytes.length + 3) / 4];
+                for (int b = bytes.length - 1, w = words.length - 1; b >= 0; b -= 4, w--) {
+                    int word = 0;
+                    for (int shift = 0; shift < 32 && b - shift / 8 >= 0; shift += 8) {
+                        word |= (bytes[b - shift / 8] & 0xFF) << shift;
+                    }
+                    words[w] = word;
+                }
+                magnitudes[j] = words;
+            }
+        }
+
+        long residue(PrimeField field, int j) {
+            int[] words = magnitudes[j];
+            if (words == null) {
+                return field.decode(field.encode(small[j]));
+            }
+            long radix = field.encode(1L << 32);
+            long result = 0;
+            for (int word : words) {
+                result = field.add(field.mul(result, radix), field.encode(word & 0xFFFFFFFFL));
+            }
+            return field.decode(negative[j] ? field.neg(result) : result);
+        }
+    }
+
+    /**
+     * Per-thread buffers for the quadratic path: the reduced y-values, and
+     * one FieldLagrange per prime index so its inverted denominators survive
+     * between calls on the same x-set.
+     */
+    private static final class Scratch {
+        private long[] reduced = new long[0];
+        private FieldLagrange[] lagranges = new FieldLagrange[0];
+
+        long[] reduced(int k) {
+            if (reduced.length < k) {
+                reduced = new long[k];
+            }
+            return reduced;
+        }
+
+        FieldLagrange lagrange(int i, PrimeField field, int k) {
+            if (i >= lagranges.length) {
+                lagranges = Arrays.copyOf(lagranges, Math.max(i + 1, 2 * lagranges.length));
+            }
+            FieldLagrange lagrange = lagranges[i];
+            if (lagrange == null || lagrange.field() != field) {
+                lagrange = new FieldLagrange(field, k);
+                lagranges[i] = lagrange;
+            }
+            return lagrange;
+        }
+    }
+
+    private BigInteger constantTerm(long[] xs, int m, Residues ys) {
+        int k = xs.length;
+        boolean fast = k >= FastInterpolator.MIN_POINTS;
+        PrimeField[] fields = primes(m + 1, fast);
+        long[] residues = new long[m + 1];
+
+        IntConsumer residue = i -> {
+            PrimeField field = fields[i];
+            Scratch scratch = SCRATCH.get();
+            long[] reduced = scratch.reduced(k);
+            for (int j = 0; j < k; j++) {
+                reduced[j] = ys.of(field, j);
+            }
+            residues[i] = fast
+                ? new FastInterpolator(field).constantTerm(xs, reduced.length == k ? reduced : Arrays.copyOf(reduced, k))
+                : scratch.lagrange(i, field, k).constantTerm(xs, reduced, k);
+        };
+        if (pool == null) {
+            IntStream.range(0, m + 1).forEach(residue);
+        } else {
+            pool.submit(() -> IntStream.range(0, m + 1).parallel().forEach(residue)).join();
+        }
+
+        BigInteger secret = lift(fields, residues, m);
+        PrimeField check = fields[m];
+        if (check.decode(check.encode(secret)) != residues[m]) {
+            throw new ArithmeticException("f(0) is not an integer");
+        }
+        return secret;
+    }
+
+    /**
+     * Garner's mixed-radix reconstruction of the value congruent to
+     * residues[i] mod p_i for i &lt; m, in the symmetric range.
+     */
+    static BigInteger lift(PrimeField[] fields, long[] residues, int m) {
+        long[] digits = new long[m];
+        for (int i = 0; i < m; i++) {
+            PrimeField f = fields[i];
+            // v_i = (r_i - (v_0 + v_1 p_0 + ...)) / (p_0 ... p_{i-1}) mod p_i
+            long value = f.encode(residues[i]);
+            long radix = f.one();
+            long partial = 0;
+            for (int j = 0; j < i; j++) {
+                partial = f.add(partial, f.mul(f.encode(digits[j]), radix));
+                radix = f.mul(radix, f.encode(fields[j].modulus()));
+            }
+            digits[i] = f.decode(f.mul(f.sub(value, partial), f.inverse(radix)));
+        }
+
+        BigInteger result;
+        BigInteger modulus;
+        try (BigAccumulator value = BigAccumulator.borrow(); BigAccumulator product = BigAccumulator.borrow()) {
+            product.add(1);
+            for (int i = m - 1; i >= 0; i--) {
+                long p = fields[i].modulus();
+                value.multiply(p).add(digits[i]);
+                product.multiply(p);
+            }
+            result = value.toBigInteger();
+            modulus = product.toBigInteger();
+        }
+        if (result.shiftLeft(1).compareTo(modulus) > 0) {
+            result = result.subtract(modulus);
+        }
+        return result;
+    }
+
+    /**
+     * The first count primes below 2^62, in descending order.
+     */
+    static PrimeField[] primes(int count) {
+        return primes(count, false);
+    }
+
+    /**
+     * The first count primes below 2^62, in descending order; with ntt,
+     * only primes p with p - 1 divisible by 2^32.
+     */
+    static PrimeField[] primes(int count, boolean ntt) {
+        List<PrimeField> primes = ntt ? NTT_PRIMES : PRIMES;
+        long step = ntt ? 1L << NTT_BITS : 2;
+        synchronized (primes) {
+            long candidate = primes.isEmpty()
+                ? (ntt ? PrimeField.MAX_MODULUS - step + 1 : PrimeField.MAX_MODULUS - 1)
+                : primes.get(primes.size() - 1).modulus() - step;
+            while (primes.size() < count) {
+                if (BigInteger.valueOf(candidate).isProbablePrime(64)) {
+                    primes.add(PrimeField.of(candidate));
+                }
+                candidate -= step;
+            }
+            return primes.subList(0, count).toArray(new PrimeField[0]);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Interpolating polynomial in Newton form, built once from k points.
+ *
+ * Building the divided-difference table costs O(k^2); after that every
+ * evaluation is a single O(k) Horner pass. Shares of an integer polynomial
+ * have integer divided differences, so the table is normally built with
+ * exact integer division. If a division is inexact the table is rebuilt
+ * over the rationals, and the coefficients are put on one common
+ * denominator so that Horner still runs on integers.
+ */
+public class NewtonPolynomial {
+
+    /** Verification batches smaller than this are not worth splitting across cores. */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final long[] nodes;
+    private final BigInteger[] coefficients;
+    private final BigInteger denominator;
+    /** The coefficients in limb form, so Horner passes allocate nothing per step */
+    private final BigAccumulator.Limbs[] limbs;
+
+    public NewtonPolynomial(long[] xs, BigInteger[] ys) {
+        if (xs.length == 0 || xs.length != ys.length) {
+            throw new IllegalArgumentException("Need matching, non-empty x and y arrays");
+        }
+        this.nodes = xs.clone();
+
+        BigInteger[] integral = integerDifferences(nodes, ys);
+        if (integral != null) {
+            this.coefficients = integral;
+            this.denominator = BigInteger.ONE;
+        } else {
+            BigInteger[] num = ys.clone();
+            BigInteger[] den = new BigInteger[ys.length];
+            rationalDifferences(nodes, num, den);
+
+            BigInteger lcm = BigInteger.ONE;
+            for (BigInteger d : den) {
+                lcm = lcm.divide(lcm.gcd(d)).multiply(d);
+            }
+            for (int i = 0; i < num.length; i++) {
+                num[i] = num[i].multiply(lcm.divide(den[i]));
+            }
+            this.coefficients = num;
+            this.denominator = lcm;
+        }
+        this.limbs = BigAccumulator.Limbs.of(coefficients);
+    }
+
+    public int degree() {
+        return nodes.length - 1;
+    }
+
+    /**
+     * Common denominator D of the Newton coefficients; 1 for integer polynomials.
+     */
+    public BigInteger denominator() {
+        return denominator;
+    }
+
+    /**
+     * D * f(x), by Horner's rule on the Newton form. The pass runs in a
+     * pooled {@link BigAccumulator}, so only the result is allocated.
+     */
+    public BigInteger scaledValueAt(long x) {
+        int k = nodes.length;
+        try (BigAccumulator acc = BigAccumulator.borrow()) {
+            acc.set(limbs[k - 1]);
+            for (int j = k - 2; j >= 0; j--) {
+                long difference;
+                try {
+                    difference = Math.subtractExact(x, nodes[j]);
+                } catch (ArithmeticException overflow) {
+                    // x - x_j needs 65 bits: take the rare slow step through BigInteger
+                    BigInteger wide = BigInteger.valueOf(x).subtract(BigInteger.valueOf(nodes[j]));
+                    acc.set(acc.toBigInteger().multiply(wide)).add(limbs[j]);
+                    continue;
+                }
+                acc.multiply(difference).add(limbs[j]);
+            }
+            return acc.toBigInteger();
+        }
+    }
+
+    /**
+     * f(x).
+     *
+     * @throws ArithmeticException if f(x) is not an integer
+     */
+    public BigInteger valueAt(long x) {
+        BigInteger scaled = scaledValueAt(x);
+        if (denominator.equals(BigInteger.ONE)) {
+            return scaled;
+        }
+        BigInteger[] qr = scaled.divideAndRemainder(denominator);
+        if (qr[1].signum() != 0) {
+            throw new ArithmeticException("f(" + x + ") = " + scaled + "/" + denominator
+                + " is not an integer");
+        }
+        return qr[0];
+    }
+
+    /**
+     * Whether (x, y) lies on the polynomial; compares D * y without dividing.
+     */
+    public boolean passesThrough(long x, BigInteger y) {
+        BigInteger scaled = scaledValueAt(x);
+        return scaled.equals(denominator.equals(BigInteger.ONE) ? y : y.multiply(denominator));
+    }
+
+    /**
+     * D * f(x) for every x, optionally spread over the common fork-join pool.
+     */
+    public BigInteger[] scaledValuesAt(long[] xs, boolean parallel) {
+        BigInteger[] values = new BigInteger[xs.length];
+        IntStream indices = IntStream.range(0, xs.length);
+        if (parallel && xs.length >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> values[i] = scaledValueAt(xs[i]));
+        return values;
+    }
+
+    /**
+     * Divided differences by exact integer division, or null if any step is inexact.
+     */
+    private static BigInteger[] integerDifferences(long[] xs, BigInteger[] ys) {
+        BigInteger[] c = ys.clone();
+        for (int level = 1; level < c.length; level++) {
+            for (int i = c.length - 1; i >= level; i--) {
+                BigInteger[] qr = c[i].subtract(c[i - 1])
+                    .divideAndRemainder(difference(xs, i, i - level));
+                if (qr[1].signum() != 0) {
+                    return null;
+                }
+                c[i] = qr[0];
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Divided differences as reduced fractions num[i] / den[i], with den[i] > 0.
+     */
+    private static void rationalDifferences(long[] xs, BigInteger[] num, BigInteger[] den) {
+        Arrays.fill(den, BigInteger.ONE);
+        for (int level = 1; level < num.length; level++) {
+            for (int i = num.length - 1; i >= level; i--) {
+                BigInteger n = num[i].multiply(den[i - 1]).subtract(num[i - 1].multiply(den[i]));
+                BigInteger d = den[i].multiply(den[i - 1]).multiply(difference(xs, i, i - level));
+                if (d.signum() < 0) {
+                    n = n.negate();
+                    d = d.negate();
+                }
+                BigInteger g = n.gcd(d);
+                num[i] = n.divide(g);
+                den[i] = d.divide(g);
+            }
+        }
+    }
+
+    private static BigInteger difference(long[] xs, int i, int j) {
+        long diff = Math.subtractExact(xs[i], xs[j]);
+        if (diff == 0) {
+            throw new IllegalArgumentException("Duplicate x-coordinate: " + xs[i]);
+        }
+        return BigInteger.valueOf(diff);
+    }
+}
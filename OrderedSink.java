@@ -0,0 +1,109 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs tasks on a work-stealing pool and writes the text each produces,
+ * either in submission order or as soon as each completes.
+ *
+ * A semaphore caps the tasks in flight (running, or done and waiting for an
+ * earlier one to be written), so memory stays bounded however many are
+ * submitted. The first write error stops further output and is rethrown by
+ * {@link #finish()}; producers should stop submitting once {@link #failed()}.
+ * Tasks should catch their own exceptions; whatever one appended before
+ * throwing is still written.
+ */
+public class OrderedSink {
+
+    private final Writer out;
+    private final boolean ordered;
+    private final Semaphore permits;
+    private final ForkJoinPool pool;
+    private final Map<Long, String> pending = new HashMap<>();
+    private long submitted;
+    private long next;
+    private IOException error;
+
+    public OrderedSink(Writer out, int threads, int maxInFlight, boolean ordered) {
+        this.out = out;
+        this.ordered = ordered;
+        this.permits = new Semaphore(maxInFlight);
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Wait for a permit, then run task on the pool with a builder of the
+     * given initial capacity. Whatever the task has appended is written even
+     * if it throws, so an ordered sink never stalls and a task can record
+     * its own failure in a finally block.
+     */
+    public void submit(int capacity, Consumer<StringBuilder> task) throws InterruptedException {
+        permits.acquire();
+        long sequence = submitted++;
+        pool.execute(() -> {
+            StringBuilder text = new StringBuilder(capacity);
+            try {
+                task.accept(text);
+            } finally {
+                accept(sequence, text.toString());
+            }
+        });
+    }
+
+    /** Number of tasks submitted so far. */
+    public long submitted() {
+        return submitted;
+    }
+
+    public synchronized boolean failed() {
+        return error != null;
+    }
+
+    /**
+     * Wait for every submitted task to be written; no more may be submitted.
+     */
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * After {@link #shutdown()}: rethrow the first write error, or flush.
+     */
+    public void finish() throws IOException {
+        synchronized (this) {
+            if (error != null) {
+                throw error;
+            }
+        }
+        out.flush();
+    }
+
+    private synchronized void accept(long sequence, String text) {
+        if (!ordered) {
+            write(text);
+            return;
+        }
+        pending.put(sequence, text);
+        for (String ready; (ready = pending.remove(next)) != null; next++) {
+            write(ready);
+        }
+    }
+
+    private void write(String text) {
+        try {
+            if (error == null) {
+                out.write(text);
+            }
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Per-phase timing of the solver: parse, convert, interpolate and verify.
+ *
+ * Each phase can be seen in two ways:
+ * <ul>
+ * <li>As a JFR event (hashira.Phase) whenever a flight recording has it
+ *     enabled, e.g. java -XX:StartFlightRecording ...</li>
+ * <li>As latency and allocation histograms, written as JSON at exit once
+ *     {@link #dumpAtExit} has been called (--metrics FILE, or the
+ *     hashira.metrics system property).</li>
+ * </ul>
+ *
+ * When neither is on, {@link #begin} returns a shared no-op span, so an
+ * instrumented phase costs one volatile read and one event-type check.
+ */
+public final class PhaseMetrics {
+
+    public enum Phase {
+        PARSE, CONVERT, INTERPOLATE, VERIFY;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Name("hashira.Phase")
+    @Label("Solver Phase")
+    @Category("Hashira")
+    @Description("One phase of reconstructing a secret from a share file")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Source")
+        String source;
+
+        @Label("Points")
+        int points;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    /** An open phase; closing it records the elapsed time. */
+    public interface Span extends AutoCloseable {
+        /** Number of points the phase handled, for the JFR event. */
+        default void points(int points) {
+        }
+
+        @Override
+        void close();
+    }
+
+    private static final Span NO_OP = () -> { };
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(PhaseEvent.class);
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private static volatile boolean histograms;
+
+    private static final Map<Phase, LatencyHistogram> LATENCY = new EnumMap<>(Phase.class);
+    private static final Map<Phase, LatencyHistogram> ALLOCATION = new EnumMap<>(Phase.class);
+    static {
+        for (Phase phase : Phase.values()) {
+            LATENCY.put(phase, new LatencyHistogram());
+            ALLOCATION.put(phase, new LatencyHistogram());
+        }
+        String path = System.getProperty("hashira.metrics");
+        if (path != null) {
+            dumpAtExit(Paths.get(path));
+        }
+    }
+
+    private PhaseMetrics() {
+    }
+
+    /**
+     * Start timing a phase. Use with try-with-resources.
+     */
+    public static Span begin(Phase phase, String source) {
+        boolean recording = histograms;
+        if (!recording && !EVENT_TYPE.isEnabled()) {
+            return NO_OP;
+        }
+        return new Timed(phase, source, recording);
+    }
+
+    /**
+     * Record histograms from now on and write them to path when the JVM exits.
+     */
+    public static synchronized void dumpAtExit(Path path) {
+        if (histograms) {
+            return;
+        }
+        histograms = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                writeJson(out);
+            } catch (IOException e) {
+                System.err.println("Error writing metrics to " + path + ": " + e.getMessage());
+            }
+        }, "hashira-metrics"));
+    }
+
+    /**
+     * Histograms of every phase seen so far, as one JSON object: per phase,
+     * the count and percentiles of latency in nanoseconds and of bytes
+     * allocated by the thread running it.
+     */
+    public static void writeJson(Writer out) throws IOException {
+        out.write("{\n  \"phases\": {");
+        String separator = "\n";
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram latency = LATENCY.get(phase);
+            if (latency.count() == 0) {
+                continue;
+            }
+            out.write(separator + "    \"" + phase.label() + "\": {\n");
+            out.write("      \"count\": " + latency.count() + ",\n");
+            out.write("      \"latencyNanos\": " + summary(latency) + ",\n");
+            out.write("      \"allocatedBytes\": "
+                      + (THREADS != null ? summary(ALLOCATION.get(phase)) : "null") + "\n");
+            out.write("    }");
+            separator = ",\n";
+        }
+        out.write("\n  }\n}\n");
+    }
+
+    /** Percentiles of a histogram as a JSON object */
+    static String summary(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT,
+                             "{\"min\": %d, \"mean\": %.1f, \"p50\": %d, \"p90\": %d, \"p99\": %d, "
+                             + "\"p999\": %d, \"max\": %d, \"total\": %d}",
+                             histogram.min(), histogram.mean(), histogram.percentile(50),
+                             histogram.percentile(90), histogram.percentile(99),
+                             histogram.percentile(99.9), histogram.max(), histogram.sum());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                return counter;
+            }
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private static final class Timed implements Span {
+        private final Phase phase;
+        private final String source;
+        private final boolean recording;
+        private final PhaseEvent event = new PhaseEvent();
+        private final long allocatedAtStart;
+        private final long start;
+        private int points;
+
+        Timed(Phase phase, String source, boolean recording) {
+            this.phase = phase;
+            this.source = source;
+            this.recording = recording;
+            this.allocatedAtStart = allocatedBytes();
+            event.begin();
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void points(int points) {
+            this.points = points;
+        }
+
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedAtStart;
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase.label();
+                event.source = source;
+                event.points = points;
+                event.allocated = allocated;
+                event.commit();
+            }
+            if (recording) {
+                LATENCY.get(phase).record(elapsed);
+                ALLOCATION.get(phase).record(Math.max(0, allocated));
+            }
+        }
+    }
+}
@@ -0,0 +1,491 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expands and verifies every polynomial spec in a file, in parallel.
+ *
+ * Specs are read in the polynomial_examples.json layout:
+ *
+ * <pre>
+ * { "examples": [ { "name": "...", "polynomial": { "degree": 2, "roots": [2.0, 3.0] } }, ... ],
+ *   "current_problem": { "polynomial": { ... } } }
+ * </pre>
+ *
+ * A top-level array of examples is read the same way. The file is streamed,
+ * and specs are handed to an {@link OrderedSink} in chunks of CHUNK_SIZE,
+ * which caps the chunks in flight, so memory stays bounded however many
+ * specs the file holds. Each chunk is formatted into one block of text and
+ * written in input order, as NDJSON or CSV.
+ *
+ * Each spec is expanded by {@link RootPolynomial#expand(double[])} and
+ * checked by evaluating the result at its roots (up to MAX_VERIFIED_ROOTS of
+ * them, spread evenly). A root passes when |f(r)| is within rounding of
+ * sum |a_j| |r|^j, the size of the terms that cancel there.
+ */
+public class PolynomialBatch {
+
+    /** Output layouts */
+    public enum Format { NDJSON, CSV }
+
+    public static final String OK = "ok";
+    public static final String RESIDUAL = "RESIDUAL";
+    public static final String OVERFLOW = "OVERFLOW";
+
+    private static final int CHUNK_SIZE = 1024;
+
+    /** Roots substituted back per spec; all of them up to this many */
+    private static final int MAX_VERIFIED_ROOTS = 64;
+
+    /** Residual allowed per unit of degree, relative to the terms' size */
+    private static final double TOLERANCE_PER_DEGREE = 8 * Math.ulp(1.0);
+
+    private final int threads;
+    private final int maxInFlight;
+    private final Format format;
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * One polynomial to expand: prod(x - r_i) over roots. degree is the
+     * declared value as written, or null if the spec gave none; it is
+     * checked when the spec is solved, so a bad one fails only that spec.
+     */
+    public static final class Spec {
+        final long index;
+        final String name;
+        final String degree;
+        final double[] roots;
+
+        Spec(long index, String name, String degree, double[] roots) {
+            this.index = index;
+            this.name = name;
+            this.degree = degree;
+            this.roots = roots;
+        }
+    }
+
+    /**
+     * @param threads     worker threads
+     * @param maxInFlight chunks of specs read ahead of the writer
+     */
+    public PolynomialBatch(int threads, int maxInFlight, Format format) {
+        if (threads < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("threads and maxInFlight must be positive");
+        }
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+        this.format = format;
+    }
+
+    /**
+     * Number of specs that failed to expand or verify in the last run.
+     */
+    public long failures() {
+        return failures.get();
+    }
+
+    /**
+     * Process every spec in file; returns the number of specs processed.
+     */
+    public long run(Path file, Writer out) throws IOException, InterruptedException {
+        try (SpecReader reader = SpecReader.open(file)) {
+            return run(reader, out);
+        }
+    }
+
+    /**
+     * Process every spec from reader; returns the number of specs processed.
+     */
+    public long run(SpecReader reader, Writer out) throws IOException, InterruptedException {
+        failures.set(0);
+        if (format == Format.CSV) {
+            out.write("index,name,degree,constant,residual,status,coefficients\n");
+        }
+        OrderedSink sink = new OrderedSink(out, threads, maxInFlight, true);
+        Dispatcher dispatcher = new Dispatcher(sink);
+        try {
+            reader.read(dispatcher);
+            dispatcher.flush();
+        } catch (InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedException(e.getMessage());
+        } finally {
+            sink.shutdown();
+        }
+        sink.finish();
+        return dispatcher.count;
+    }
+
+    /**
+     * Collects specs into chunks and hands each full chunk to the sink,
+     * which waits for a permit first.
+     */
+    private final class Dispatcher implements SpecReader.Listener {
+        private final OrderedSink sink;
+        private List<Spec> chunk = new ArrayList<>(CHUNK_SIZE);
+        long count;
+
+        Dispatcher(OrderedSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public boolean spec(Spec spec) throws IOException {
+            chunk.add(spec);
+            count++;
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+            return !sink.failed();
+        }
+
+        void flush() throws IOException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Spec> specs = chunk;
+            chunk = new ArrayList<>(CHUNK_SIZE);
+            try {
+                sink.submit(specs.size() * 128, text -> {
+                    int solved = 0;
+                    try {
+                        for (Spec spec : specs) {
+                            solve(spec, text);
+                            solved++;
+                        }
+                    } finally {
+                        // An Error still yields a line per spec
+                        for (int i = solved; i < specs.size(); i++) {
+                            failures.incrementAndGet();
+                            append(specs.get(i), null, Double.NaN, "ERROR aborted", text);
+                        }
+                    }
+                });
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("Interrupted while reading specs");
+            }
+        }
+    }
+
+    /**
+     * Append the result line for one spec; never throws.
+     */
+    void solve(Spec spec, StringBuilder text) {
+        double[] coefficients = null;
+        double residual = Double.NaN;
+        String status;
+        int n = spec.roots.length;
+        try {
+            if (spec.degree != null) {
+                int degree;
+                try {
+                    degree = Integer.parseInt(spec.degree.trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("degree '" + spec.degree + "' is not an integer");
+                }
+                if (degree != n) {
+                    throw new IllegalArgumentException("degree " + degree + " but " + n + " roots");
+                }
+            }
+            for (double root : spec.roots) {
+                if (!Double.isFinite(root)) {
+                    throw new IllegalArgumentException("root is not a finite number");
+                }
+            }
+            coefficients = RootPolynomial.expand(spec.roots);
+            boolean finite = true;
+            for (double coefficient : coefficients) {
+                finite &= Double.isFinite(coefficient);
+            }
+            if (!finite) {
+                status = OVERFLOW;
+            } else {
+                residual = residual(coefficients, spec.roots);
+                status = residual <= TOLERANCE_PER_DEGREE * (n + 1) ? OK : RESIDUAL;
+            }
+        } catch (RuntimeException e) {
+            status = "ERROR " + e.getMessage();
+        }
+        if (!OK.equals(status)) {
+            failures.incrementAndGet();
+        }
+        append(spec, coefficients, residual, status, text);
+    }
+
+    private void append(Spec spec, double[] coefficients, double residual, String status, StringBuilder text) {
+        if (format == Format.CSV) {
+            csv(spec, coefficients, residual, status, text);
+        } else {
+            ndjson(spec, coefficients, residual, status, text);
+        }
+    }
+
+    /**
+     * Largest |f(r)| / sum |a_j| |r|^j over the verified roots.
+     */
+    static double residual(double[] coefficients, double[] roots) {
+        int n = roots.length;
+        int step = Math.max(1, (n + MAX_VERIFIED_ROOTS - 1) / MAX_VERIFIED_ROOTS);
+        double worst = 0;
+        for (int i = 0; i < n; i += step) {
+            double r = roots[i];
+            double abs = Math.abs(r);
+            double value = 0;
+            double scale = 0;
+            for (int j = coefficients.length - 1; j >= 0; j--) {
+                value = Math.fma(value, r, coefficients[j]);
+                scale = scale * abs + Math.abs(coefficients[j]);
+            }
+            if (value != 0) {
+                worst = Math.max(worst, Math.abs(value) / scale);
+            }
+        }
+        return worst;
+    }
+
+    private static void ndjson(Spec spec, double[] coefficients, double residual, String status, StringBuilder text) {
+        text.append("{\"index\":").append(spec.index).append(",\"name\":");
+        if (spec.name == null) {
+            text.append("null");
+        } else {
+            quote(spec.name, text);
+        }
+        text.append(",\"degree\":").append(spec.roots.length).append(",\"coefficients\":");
+        if (coefficients == null) {
+            text.append("null,\"constant\":null");
+        } else {
+            text.append('[');
+            for (int j = 0; j < coefficients.length; j++) {
+                if (j > 0) {
+                    text.append(',');
+                }
+                number(coefficients[j], text);
+            }
+            text.append("],\"constant\":");
+            number(coefficients[0], text);
+        }
+        text.append(",\"residual\":");
+        number(residual, text);
+        text.append(",\"status\":");
+        quote(status, text);
+        text.append("}\n");
+    }
+
+    /** Coefficients go last, lowest degree first and separated by spaces. */
+    private static void csv(Spec spec, double[] coefficients, double residual, String status, StringBuilder text) {
+        text.append(spec.index).append(',');
+        if (spec.name != null) {
+            csvField(spec.name, text);
+        }
+        text.append(',').append(spec.roots.length).append(',');
+        if (coefficients != null) {
+            text.append(coefficients[0]);
+        }
+        text.append(',');
+        if (!Double.isNaN(residual)) {
+            text.append(residual);
+        }
+        text.append(',');
+        csvField(status, text);
+        text.append(',');
+        if (coefficients != null) {
+            for (int j = 0; j < coefficients.length; j++) {
+                if (j > 0) {
+                    text.append(' ');
+                }
+                text.append(coefficients[j]);
+            }
+        }
+        text.append('\n');
+    }
+
+    /** A double as a JSON number; null when it is not finite. */
+    private static void number(double value, StringBuilder text) {
+        if (Double.isFinite(value)) {
+            text.append(value);
+        } else {
+            text.append("null");
+        }
+    }
+
+    private static void quote(String s, StringBuilder text) {
+        text.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                text.append('\\').append(c);
+            } else if (c < 0x20) {
+                text.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                text.append(c);
+            }
+        }
+        text.append('"');
+    }
+
+    private static void csvField(String s, StringBuilder text) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            text.append(s);
+        } else {
+            text.append('"').append(s.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    /**
+     * Streaming reader for spec files. Members other than "examples" and
+     * "current_problem" are skipped, as are unknown members of a spec.
+     */
+    public static class SpecReader extends JsonTokenizer {
+
+        /** Receives specs in document order; returning false stops the read. */
+        public interface Listener {
+            boolean spec(Spec spec) throws IOException;
+        }
+
+        private long index;
+        private double[] roots = new double[16];
+
+        public SpecReader(ReadableByteChannel channel) {
+            super(channel);
+        }
+
+        public SpecReader(InputStream in) {
+            this(Channels.newChannel(in));
+        }
+
+        public static SpecReader open(Path path) throws IOException {
+            return new SpecReader(FileChannel.open(path, StandardOpenOption.READ));
+        }
+
+        public void read(Listener listener) throws IOException {
+            int c = peekToken();
+            if (c == '[') {
+                readExamples(listener);
+                return;
+            }
+            expect('{');
+            if (peekToken() == '}') {
+                next();
+                return;
+            }
+            do {
+                String key = readString();
+                expect(':');
+                boolean more = true;
+                if ("examples".equals(key) && peekToken() == '[') {
+                    more = readExamples(listener);
+                } else if ("current_problem".equals(key) && peekToken() == '{') {
+                    more = listener.spec(readSpec(key));
+                } else {
+                    skipValue();
+                }
+                if (!more) {
+                    return;
+                }
+            } while (nextMember('}'));
+        }
+
+        private boolean readExamples(Listener listener) throws IOException {
+            expect('[');
+            if (peekToken() == ']') {
+                next();
+                return true;
+            }
+            do {
+                if (peekToken() != '{') {
+                    skipValue();
+                } else if (!listener.spec(readSpec(null))) {
+                    return false;
+                }
+            } while (nextMember(']'));
+            return true;
+        }
+
+        /** A spec whose fields may sit directly in it or in a "polynomial" object. */
+        private Spec readSpec(String name) throws IOException {
+            String[] fields = { name, null, null };
+            int count = readSpecFields(fields, 0);
+            String label = fields[0] != null ? fields[0] : fields[1];
+            return new Spec(index++, label, fields[2], Arrays.copyOf(roots, count));
+        }
+
+        /** fields holds the name, description and degree; returns the number of roots. */
+        private int readSpecFields(String[] fields, int count) throws IOException {
+            expect('{');
+            if (peekToken() == '}') {
+                next();
+                return count;
+            }
+            do {
+                String key = readString();
+                expect(':');
+                if ("name".equals(key) && peekToken() == '"') {
+                    fields[0] = readString();
+                } else if ("description".equals(key) && peekToken() == '"') {
+                    fields[1] = readString();
+                } else if ("degree".equals(key)) {
+                    fields[2] = readDegree();
+                } else if ("roots".equals(key) && peekToken() == '[') {
+                    count = readRoots();
+                } else if ("polynomial".equals(key) && peekToken() == '{') {
+                    count = readSpecFields(fields, count);
+                } else {
+                    skipValue();
+                }
+            } while (nextMember('}'));
+            return count;
+        }
+
+        /** The declared degree as written; validated later, against its spec alone. */
+        private String readDegree() throws IOException {
+            int c = peekToken();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                skipValue();
+                return c == '{' ? "{...}" : "[...]";
+            }
+            return readScalar();
+        }
+
+        /**
+         * Roots into the shared buffer, as JSON numbers or quoted decimals.
+         * A root that is not a number is read as NaN.
+         */
+        private int readRoots() throws IOException {
+            expect('[');
+            if (peekToken() == ']') {
+                next();
+                return 0;
+            }
+            int count = 0;
+            do {
+                String s = peekToken() == '"' ? readString() : readScalar();
+                double root;
+                try {
+                    root = Double.parseDouble(s.trim());
+                } catch (NumberFormatException e) {
+                    // reported against this spec alone
+                    root = Double.NaN;
+                }
+                if (count == roots.length) {
+                    roots = Arrays.copyOf(roots, count * 2);
+                }
+                roots[count++] = root;
+            } while (nextMember(']'));
+            return count;
+        }
+    }
+}
@@ -37,7 +37,7 @@ public class PolynomialSolver {
             } else if (roots.length == 3) {
                 calculateCubicCoefficients(roots);
             } else {
-                System.out.println("This program supports quadratic (2 roots) and cubic (3 roots) polynomials.");
+                SimplePolynomialSolver.calculateGeneralCoefficients(roots);
             }
             
         } catch (IOException e) {
@@ -61,10 +61,11 @@ public class PolynomialSolver {
         double r1 = roots[0];
         double r2 = roots[1];
         
-        // For monic polynomial (leading coefficient = 1)
-        double a = 1.0;
-        double b = -(r1 + r2);  // Sum of roots with opposite sign
-        double c = r1 * r2;     // Product of roots
+        // Monic polynomial (leading coefficient = 1), expanded with compensated arithmetic
+        double[] coefficients = RootPolynomial.expand(roots);
+        double a = coefficients[2];
+        double b = coefficients[1];  // Sum of roots with opposite sign
+        double c = coefficients[0];  // Product of roots
         
         System.out.println("\nQuadratic Polynomial: ax² + bx + c = 0");
         System.out.println("Coefficients:");
@@ -96,11 +97,12 @@ public class PolynomialSolver {
         double r2 = roots[1];
         double r3 = roots[2];
         
-        // For monic polynomial (leading coefficient = 1)
-        double a = 1.0;
-        double b = -(r1 + r2 + r3);                    // Sum of roots
-        double c = r1*r2 + r1*r3 + r2*r3;             // Sum of products taken two at a time
-        double d = -r1*r2*r3;                         // Product of all roots
+        // Monic polynomial (leading coefficient = 1), expanded with compensated arithmetic
+        double[] coefficients = RootPolynomial.expand(roots);
+        double a = coefficients[3];
+        double b = coefficients[2];                    // Sum of roots
+        double c = coefficients[1];                    // Sum of products taken two at a time
+        double d = coefficients[0];                    // Product of all roots
         
         System.out.println("\nCubic Polynomial: ax³ + bx² + cx + d = 0");
         System.out.println("Coefficients:");
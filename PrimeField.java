@@ -0,0 +1,213 @@
+import java.math.BigInteger;
+
+/**
+ * Arithmetic in GF(p) for word-size primes, on primitive longs.
+ *
+ * Elements are kept in an internal representation (Montgomery form for
+ * general primes, plain residues for 2^61 - 1); use {@link #encode} and
+ * {@link #decode} at the boundaries. None of the arithmetic methods allocate.
+ */
+public abstract class PrimeField {
+
+    /** The Mersenne prime 2^61 - 1. */
+    public static final long MERSENNE_61 = (1L << 61) - 1;
+
+    /** Primes must stay below 2^62 so that a + b never overflows a long. */
+    public static final long MAX_MODULUS = 1L << 62;
+
+    protected final long p;
+
+    protected PrimeField(long p) {
+        this.p = p;
+    }
+
+    /**
+     * Field for the given prime, using Mersenne reduction for 2^61 - 1 and
+     * Montgomery reduction otherwise.
+     */
+    public static PrimeField of(long p) {
+        if (p < 3 || p >= MAX_MODULUS || !BigInteger.valueOf(p).isProbablePrime(64)) {
+            throw new IllegalArgumentException("Modulus must be an odd prime below 2^62: " + p);
+        }
+        return p == MERSENNE_61 ? new Mersenne61() : new Montgomery(p);
+    }
+
+    /**
+     * Parse a command-line modulus: a decimal prime, "mersenne61" / "2^61-1",
+     * or "ntt" for the transform-friendly {@link FastInterpolator#NTT_PRIME}.
+     */
+    public static PrimeField parse(String spec) {
+        String s = spec.trim().toLowerCase();
+        if (s.equals("mersenne61") || s.equals("2^61-1")) {
+            return of(MERSENNE_61);
+        }
+        if (s.equals("ntt")) {
+            return of(FastInterpolator.NTT_PRIME);
+        }
+        return of(Long.parseLong(s));
+    }
+
+    public long modulus() {
+        return p;
+    }
+
+    /** Internal representation of a signed long value. */
+    public abstract long encode(long value);
+
+    /** Canonical residue in [0, p) of an internal value. */
+    public abstract long decode(long a);
+
+    public abstract long mul(long a, long b);
+
+    public abstract long one();
+
+    public long encode(BigInteger value) {
+        return encode(value.mod(BigInteger.valueOf(p)).longValue());
+    }
+
+    public long add(long a, long b) {
+        long r = a + b;
+        return r >= p ? r - p : r;
+    }
+
+    public long sub(long a, long b) {
+        long r = a - b;
+        return r < 0 ? r + p : r;
+    }
+
+    public long neg(long a) {
+        return a == 0 ? 0 : p - a;
+    }
+
+    public long pow(long a, long e) {
+        long result = one();
+        while (e > 0) {
+            if ((e & 1) != 0) {
+                result = mul(result, a);
+            }
+            a = mul(a, a);
+            e >>>= 1;
+        }
+        return result;
+    }
+
+    public long inverse(long a) {
+        if (a == 0) {
+            throw new ArithmeticException("Zero has no inverse mod " + p);
+        }
+        return pow(a, p - 2);
+    }
+
+    /**
+     * Montgomery's batch inversion: out[i] = a[i]^-1 for i < len using a
+     * single field inversion. out may alias a; scratch must hold len values.
+     */
+    public void batchInverse(long[] a, long[] out, long[] scratch, int len) {
+        if (len == 0) {
+            return;
+        }
+        long acc = one();
+        for (int i = 0; i < len; i++) {
+            scratch[i] = acc;
+            acc = mul(acc, a[i]);
+        }
+        long inv = inverse(acc);
+        for (int i = len - 1; i >= 0; i--) {
+            long ai = a[i];
+            out[i] = mul(inv, scratch[i]);
+            inv = mul(inv, ai);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GF(" + p + ")";
+    }
+
+    /**
+     * 2^61 - 1: the 122-bit product folds back with a shift and an add.
+     */
+    static final class Mersenne61 extends PrimeField {
+
+        Mersenne61() {
+            super(MERSENNE_61);
+        }
+
+        @Override
+        public long encode(long value) {
+            long r = value % MERSENNE_61;
+            return r < 0 ? r + MERSENNE_61 : r;
+        }
+
+        @Override
+        public long decode(long a) {
+            return a;
+        }
+
+        @Override
+        public long one() {
+            return 1;
+        }
+
+        @Override
+        public long mul(long a, long b) {
+            long hi = Math.multiplyHigh(a, b);
+            long lo = a * b;
+            long r = (lo & MERSENNE_61) + ((lo >>> 61) | (hi << 3));
+            return r >= MERSENNE_61 ? r - MERSENNE_61 : r;
+        }
+    }
+
+    /**
+     * General odd prime below 2^62, with values held as a * 2^64 mod p.
+     */
+    static final class Montgomery extends PrimeField {
+
+        /** p^-1 mod 2^64. */
+        private final long pInv;
+        /** 2^128 mod p, used to enter Montgomery form. */
+        private final long r2;
+        private final long one;
+
+        Montgomery(long p) {
+            super(p);
+            long inv = p;
+            for (int i = 0; i < 5; i++) {
+                inv *= 2 - p * inv;
+            }
+            this.pInv = inv;
+            BigInteger bp = BigInteger.valueOf(p);
+            this.r2 = BigInteger.ONE.shiftLeft(128).mod(bp).longValue();
+            this.one = BigInteger.ONE.shiftLeft(64).mod(bp).longValue();
+        }
+
+        @Override
+        public long encode(long value) {
+            long r = value % p;
+            return mul(r < 0 ? r + p : r, r2);
+        }
+
+        @Override
+        public long decode(long a) {
+            return reduce(0, a);
+        }
+
+        @Override
+        public long one() {
+            return one;
+        }
+
+        @Override
+        public long mul(long a, long b) {
+            return reduce(Math.multiplyHigh(a, b), a * b);
+        }
+
+        /** REDC of the 128-bit value hi:lo < p * 2^64. */
+        private long reduce(long hi, long lo) {
+            long m = lo * pInv;
+            long mpHi = Math.multiplyHigh(m, p) + ((m >> 63) & p);
+            long r = hi - mpHi;
+            return r < 0 ? r + p : r;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import java.math.BigInteger;
+
+/**
+ * A way of computing the secret f(0) exactly from k shares.
+ *
+ * Engines differ only in cost: {@link EngineSelector} picks one for each
+ * problem from k, the size of the y-values and the measured speed of this
+ * machine.
+ */
+public interface ReconstructionEngine {
+
+    /** Short name, as accepted by --engine. */
+    String name();
+
+    /**
+     * f(0) for the polynomial through (xs[i], ys[i]).
+     *
+     * @throws ArithmeticException if f(0) is not an integer
+     * @throws IllegalArgumentException if two x-coordinates coincide
+     */
+    BigInteger constantTerm(long[] xs, BigInteger[] ys);
+
+    /**
+     * f(0) for y-values that all fit in a long; engines with a primitive
+     * path override this to avoid boxing every value.
+     */
+    default BigInteger constantTerm(long[] xs, long[] ys) {
+        return constantTerm(xs, EngineSelector.toBigIntegers(ys));
+    }
+
+    /**
+     * f(0) through the first k points of a packed store. The default reads
+     * y as longs when they all fit, and as BigIntegers otherwise; engines
+     * that work on residues override it to read the bytes directly.
+     */
+    default BigInteger constantTerm(ShareStore shares, int k) {
+        long[] xs = shares.xs(k);
+        long[] ys = shares.longYs(k);
+        return ys != null ? constantTerm(xs, ys) : constantTerm(xs, shares.ys(k));
+    }
+}
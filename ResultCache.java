@@ -0,0 +1,297 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk cache of reconstructed secrets, keyed by SHA-256 digests of the
+ * shares.
+ *
+ * There are two keys per share file:
+ * <ul>
+ * <li>{@link #fileKey}: the raw file bytes. It can be checked before
+ *     anything is parsed.</li>
+ * <li>{@link Canonical}: the share set itself, i.e. n, k, the prime and each
+ *     point's x, base and digits in order, with case and leading zeros
+ *     normalised. Files that differ only in layout share this key.</li>
+ * </ul>
+ *
+ * Each entry is a small file named after its key. Writes go to a temporary
+ * file that is atomically renamed into place, so a reader in any process
+ * sees a whole entry or none, and a crash leaves at most a stray temporary
+ * file. A hit touches the entry's modification time. Once there are more
+ * than maxEntries entries, the least recently used are deleted.
+ */
+public class ResultCache {
+
+    /** Status values, as printed in batch results. */
+    public static final String VERIFIED = "verified";
+    public static final String MISMATCH = "MISMATCH";
+    public static final String UNVERIFIED = "unverified";
+
+    private static final String HEADER = "hashira-result 2";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000;
+
+    /** Entries written between eviction scans. */
+    private static final int EVICTION_INTERVAL = 256;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path dir;
+    private final int maxEntries;
+    private final AtomicInteger writesSinceScan = new AtomicInteger();
+
+    /** The declared n and k, the secret, and whether the remaining shares agreed with it. */
+    public static final class Result {
+        public final int n;
+        public final int k;
+        public final String secret;
+        public final String status;
+
+        public Result(int n, int k, String secret, String status) {
+            if (secret.indexOf('\n') >= 0 || status.indexOf('\n') >= 0) {
+                throw new IllegalArgumentException("Result fields must be single lines");
+            }
+            this.n = n;
+            this.k = k;
+            this.secret = secret;
+            this.status = status;
+        }
+
+        public static Result of(int n, int k, String secret, boolean verified) {
+            return new Result(n, k, secret, verified ? VERIFIED : MISMATCH);
+        }
+    }
+
+    public ResultCache(Path dir, int maxEntries) throws IOException {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.dir = Files.createDirectories(dir);
+        this.maxEntries = maxEntries;
+        evict();
+    }
+
+    /**
+     * Cache in dir bounded by the hashira.cache.maxEntries property (default 100000).
+     */
+    public static ResultCache open(Path dir) throws IOException {
+        return new ResultCache(dir, Integer.getInteger("hashira.cache.maxEntries", 100_000));
+    }
+
+    /**
+     * Context for keys: the options that change a file's result, so results
+     * are only reused under the same ones. field is the --field override and
+     * fingerprint the --fast-verify check, either null. A fingerprint
+     * acceptance is weaker than an exact one, so it is kept apart with its
+     * false-accept bound; over a field verification is always exact.
+     */
+    public static String context(PrimeField field, FingerprintVerifier fingerprint) {
+        if (field != null) {
+            return "field=" + field.modulus();
+        }
+        return fingerprint == null ? "" : "fingerprint=" + fingerprint.falseAcceptProbability();
+    }
+
+    /**
+     * Key for the exact bytes of a share file. context distinguishes runs
+     * whose results differ for the same file, such as a --field override.
+     */
+    public static String fileKey(Path file, String context) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(("file\n" + context + "\n").getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Builds the canonical key while a share file is read. keys and prime
+     * may arrive after the points, so they are folded in by {@link #key}.
+     */
+    public static class Canonical implements ShareFileReader.Listener {
+        private final MessageDigest digest = sha256();
+        private final String context;
+        private int n;
+        private int k;
+        private long prime;
+
+        public Canonical(String context) {
+            this.context = context;
+        }
+
+        @Override
+        public void keys(int n, int k) {
+            this.n = n;
+            this.k = k;
+        }
+
+        @Override
+        public void prime(long p) {
+            this.prime = p;
+        }
+
+        @Override
+        public void point(HashiraSecretSharing.PointData point) {
+            String value = point.value.toLowerCase(Locale.ROOT);
+            int start = 0;
+            while (start < value.length() - 1 && value.charAt(start) == '0') {
+                start++;
+            }
+            update(point.x + ":" + point.base + ":" + value.substring(start) + ";");
+        }
+
+        public String key() {
+            update("n=" + n + ";k=" + k + ";prime=" + prime + ";context=" + context);
+            return hex(digest.digest());
+        }
+
+        private void update(String text) {
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * The cached result for key, or null. Unreadable entries count as misses
+     * and are removed.
+     */
+    public Result get(String key) {
+        Path entry = dir.resolve(key);
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(entry, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+        String[] keys = lines.size() == 4 ? lines.get(1).split(" ") : null;
+        if (keys == null || keys.length != 2 || !HEADER.equals(lines.get(0))) {
+            delete(entry);
+            return null;
+        }
+        Result result;
+        try {
+            result = new Result(Integer.parseInt(keys[0]), Integer.parseInt(keys[1]), lines.get(2), lines.get(3));
+        } catch (NumberFormatException e) {
+            delete(entry);
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // evicted meanwhile; the result is still good
+        }
+        return result;
+    }
+
+    /**
+     * Store result under each key. Failures to write are ignored: the cache
+     * only ever saves work.
+     */
+    public void put(Result result, String... keys) {
+        byte[] bytes = (HEADER + "\n" + result.n + " " + result.k + "\n" + result.secret + "\n" + result.status + "\n")
+            .getBytes(StandardCharsets.UTF_8);
+        for (String key : keys) {
+            Path temp = dir.resolve(key + "." + ProcessHandle.current().pid() + "."
+                                    + Long.toHexString(ThreadLocalRandom.current().nextLong()) + TEMP_SUFFIX);
+            try {
+                Files.write(temp, bytes);
+                Files.move(temp, dir.resolve(key), StandardCopyOption.ATOMIC_MOVE,
+                           StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                delete(temp);
+            }
+        }
+        if (writesSinceScan.addAndGet(keys.length) >= EVICTION_INTERVAL) {
+            writesSinceScan.set(0);
+            try {
+                evict();
+            } catch (IOException e) {
+                // try again after the next batch of writes
+            }
+        }
+    }
+
+    /**
+     * Delete least recently used entries beyond maxEntries, and temporary
+     * files left by crashed writers.
+     */
+    public synchronized void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        Map<Path, FileTime> times = new HashMap<>();
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                FileTime time;
+                try {
+                    time = Files.getLastModifiedTime(file);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    if (time.toMillis() < staleBefore) {
+                        delete(file);
+                    }
+                } else {
+                    entries.add(file);
+                    times.put(file, time);
+                }
+            }
+        }
+        int excess = entries.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        entries.sort(Comparator.comparing(times::get));
+        for (int i = 0; i < excess; i++) {
+            delete(entries.get(i));
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // another process got there first, or it will be retried on the next scan
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
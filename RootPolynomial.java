@@ -0,0 +1,665 @@
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Expands prod(x - r_i) into coefficients, lowest degree first, for any
+ * number of roots.
+ *
+ * Roots are multiplied up a balanced product tree, so every multiplication
+ * is between polynomials of similar degree:
+ * <ul>
+ * <li>Exact: BigInteger coefficients, schoolbook for small factors and
+ *     Kronecker substitution above that: each factor is packed into one
+ *     BigInteger and the pair multiplied with a single multiply, which the
+ *     JDK does by Toom-Cook. Decimal roots are scaled to integers first, so
+ *     the result is exact.</li>
+ * <li>Double: blocks of up to BLOCK roots are expanded in double-double
+ *     arithmetic (FMA-based TwoProduct and TwoSum). Blocks are combined
+ *     with compensated dot products, or by complex FFT in O(n log n) when
+ *     its error bound is small against every coefficient of the product.
+ *     Every coefficient carries its own binary exponent up the tree, so
+ *     nothing overflows or underflows on the way.</li>
+ * </ul>
+ *
+ * The coefficients of real-rooted polynomials spread over many orders of
+ * magnitude, which the FFT cannot resolve, so large double products mostly
+ * take the O(n^2) compensated path. {@link #expandFast} always takes the
+ * FFT instead, trading per-coefficient accuracy for O(n log^2 n) time.
+ */
+public final class RootPolynomial {
+
+    /** Roots expanded directly in double-double before the product tree */
+    private static final int BLOCK = 64;
+
+    /** Factors up to this length are multiplied by schoolbook methods */
+    private static final int NAIVE_MULTIPLY = 64;
+
+    /** FFT product error per transform level, in units of |a| |b| (Euclidean norms) */
+    private static final double FFT_ERROR = 0x1p-50;
+
+    /** Relative error allowed in any coefficient of an FFT product */
+    private static final double FFT_TOLERANCE = 0x1p-40;
+
+    /** Block coefficients are scaled down by 2^BLOCK_RESCALE before they can overflow */
+    private static final int BLOCK_RESCALE = 512;
+
+    /** Fraction bits of a double */
+    private static final int MANTISSA_BITS = 52;
+
+    /** Past this many doublings every finite double has overflowed or underflowed */
+    private static final int MAX_SCALE = 4096;
+
+    /** Exponent recorded for a zero coefficient; sums of two stay clear of overflow */
+    private static final int ZERO_EXPONENT = Integer.MIN_VALUE / 8;
+
+    /** 2^-d for every d that leaves a term inside double-double precision of the largest */
+    private static final double[] POWERS_OF_HALF = new double[2 * MANTISSA_BITS + 16];
+
+    static {
+        for (int d = 0; d < POWERS_OF_HALF.length; d++) {
+            POWERS_OF_HALF[d] = Math.scalb(1.0, -d);
+        }
+    }
+
+    /** Exact factors up to this length are multiplied by schoolbook methods */
+    private static final int KRONECKER_THRESHOLD = 16;
+
+    private RootPolynomial() {
+    }
+
+    /**
+     * Coefficients of prod(x - r_i) in double precision.
+     *
+     * Each coefficient is accurate relative to the matching coefficient of
+     * prod(x + |r_i|), which is the best any double expansion can promise
+     * (see {@link #expansionError}). Coefficients beyond the double range
+     * come out infinite or zero. A non-finite root gives NaN throughout.
+     */
+    public static double[] expand(double[] roots) {
+        return expand(roots, false);
+    }
+
+    /**
+     * Coefficients of prod(x - r_i), with every product above the block size
+     * taken by FFT, in O(n log^2 n). Its error is norm-wise: each product of
+     * factors a and b is off by at most about 2^-50 log2(n) |a| |b|
+     * (Euclidean norms) in every coefficient, and these add up over the
+     * log2(n / 64) levels of the tree. Each coefficient is therefore accurate
+     * relative to the largest one, not to itself: those many orders of
+     * magnitude below the largest may have no correct digits, or come out as
+     * zero; only the leading 1 is exact. Use it when the dominant
+     * coefficients are what matter.
+     */
+    public static double[] expandFast(double[] roots) {
+        return expand(roots, true);
+    }
+
+    private static double[] expand(double[] roots, boolean fast) {
+        int n = roots.length;
+        if (n == 0) {
+            return new double[] { 1 };
+        }
+        double[] coefficients = new double[n + 1];
+        long exponents = 0;
+        int nonzero = 0;
+        for (double root : roots) {
+            if (!Double.isFinite(root)) {
+                Arrays.fill(coefficients, Double.NaN);
+                return coefficients;
+            }
+            if (root != 0) {
+                exponents += Math.getExponent(root);
+                nonzero++;
+            }
+        }
+        // Roots scaled by a power of two near their geometric mean, which brings
+        // a_0 and a_n to about the same size; undone exactly at the end. The FFT's
+        // error is relative to the largest coefficient, so fast mode keeps that
+        // where it is in the result.
+        int shift = nonzero == 0 || fast ? 0 : (int) Math.round((double) exponents / nonzero);
+        double[] scaled = new double[n];
+        for (int i = 0; i < n; i++) {
+            scaled[i] = Math.scalb(roots[i], -shift);
+        }
+        Factor product = expand(scaled, 0, n, fast);
+        for (int j = 0; j <= n; j++) {
+            long exponent = product.exponents[j] + (long) shift * (n - j);
+            coefficients[j] = Math.scalb(product.mantissas[j], (int) Math.max(-MAX_SCALE, Math.min(MAX_SCALE, exponent)));
+        }
+        if (fast) {
+            // Monic whatever the FFT's noise at that end
+            coefficients[n] = 1;
+        }
+        return coefficients;
+    }
+
+    /**
+     * A product-tree node with a binary exponent per coefficient: c_j is
+     * mantissas[j] * 2^exponents[j], with |mantissas[j]| in [1, 2) or zero.
+     * The coefficients of a product of real factors spread over far more
+     * than the double range, so no single scale would hold them all.
+     */
+    private static final class Factor {
+        final double[] mantissas;
+        final int[] exponents;
+
+        Factor(int length) {
+            this.mantissas = new double[length];
+            this.exponents = new int[length];
+        }
+
+        /** Coefficients values[j] * 2^exponent */
+        Factor(double[] values, int exponent) {
+            this(values.length);
+            for (int j = 0; j < values.length; j++) {
+                set(j, values[j], exponent);
+            }
+        }
+
+        int length() {
+            return mantissas.length;
+        }
+
+        /** c_j = value * 2^exponent */
+        void set(int j, double value, int exponent) {
+            if (value == 0) {
+                mantissas[j] = 0;
+                exponents[j] = ZERO_EXPONENT;
+                return;
+            }
+            int e = Math.getExponent(value);
+            if (e < Double.MIN_EXPONENT) {
+                // Subnormal: bring it into the normal range first
+                value = Math.scalb(value, MANTISSA_BITS);
+                exponent -= MANTISSA_BITS;
+                e = Math.getExponent(value);
+            }
+            mantissas[j] = Math.scalb(value, -e);
+            exponents[j] = exponent + e;
+        }
+
+        int maxExponent() {
+            int max = ZERO_EXPONENT;
+            for (int e : exponents) {
+                max = Math.max(max, e);
+            }
+            return max;
+        }
+
+        /** The coefficients times 2^-exponent as plain doubles, flushing those far below to zero */
+        double[] scaled(int exponent) {
+            double[] values = new double[mantissas.length];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = Math.scalb(mantissas[j], Math.max(-MAX_SCALE, exponents[j] - exponent));
+            }
+            return values;
+        }
+    }
+
+    private static Factor expand(double[] roots, int lo, int hi, boolean fast) {
+        if (hi - lo <= BLOCK) {
+            return expandBlock(roots, lo, hi);
+        }
+        int mid = (lo + hi) >>> 1;
+        return multiply(expand(roots, lo, mid, fast), expand(roots, mid, hi, fast), fast);
+    }
+
+    /**
+     * One linear factor at a time, each coefficient held as hi + lo and
+     * rescaled whenever the largest grows past 2^BLOCK_RESCALE.
+     */
+    private static Factor expandBlock(double[] roots, int from, int to) {
+        int n = to - from;
+        double[] hi = new double[n + 1];
+        double[] lo = new double[n + 1];
+        int exponent = 0;
+        hi[0] = 1;
+        for (int i = 0; i < n; i++) {
+            double r = roots[from + i];
+            double max = 0;
+            for (int j = 0; j <= i; j++) {
+                max = Math.max(max, Math.abs(hi[j]));
+            }
+            if (Math.getExponent(max) > BLOCK_RESCALE) {
+                for (int j = 0; j <= i; j++) {
+                    hi[j] = Math.scalb(hi[j], -BLOCK_RESCALE);
+                    lo[j] = Math.scalb(lo[j], -BLOCK_RESCALE);
+                }
+                exponent += BLOCK_RESCALE;
+            }
+            // (c_{j-1} - r c_j) from the top down, so c_j is still the old value
+            for (int j = i + 1; j >= 0; j--) {
+                double ph = -r * hi[j];
+                double pl = Math.fma(-r, hi[j], -ph) - r * lo[j];
+                double sh = j > 0 ? hi[j - 1] : 0;
+                double sl = j > 0 ? lo[j - 1] : 0;
+                double s = sh + ph;
+                double e = twoSumError(sh, ph, s) + sl + pl;
+                hi[j] = s + e;
+                lo[j] = e - (hi[j] - s);
+            }
+        }
+        for (int j = 0; j <= n; j++) {
+            hi[j] += lo[j];
+        }
+        return new Factor(hi, exponent);
+    }
+
+    /**
+     * Product of two factors. The FFT's error is bounded relative to the
+     * norms of the factors, not to each coefficient, so its product is kept
+     * only if that bound is far below every coefficient, or if fast;
+     * otherwise the product is redone with compensated dot products.
+     */
+    private static Factor multiply(Factor a, Factor b, boolean fast) {
+        if (Math.min(a.length(), b.length()) > NAIVE_MULTIPLY) {
+            int ea = a.maxExponent();
+            int eb = b.maxExponent();
+            double[] sa = a.scaled(ea);
+            double[] sb = b.scaled(eb);
+            double[] c = multiplyFft(sa, sb);
+            if (fast) {
+                return new Factor(c, ea + eb);
+            }
+            double bound = FFT_ERROR * Integer.numberOfTrailingZeros(fftSize(c.length)) * norm(sa) * norm(sb);
+            boolean accurate = true;
+            for (int k = 0; k < c.length && accurate; k++) {
+                accurate = Math.abs(c[k]) * FFT_TOLERANCE >= bound;
+            }
+            if (accurate) {
+                return new Factor(c, ea + eb);
+            }
+        }
+        return multiplyCompensated(a, b);
+    }
+
+    private static double norm(double[] a) {
+        double sum = 0;
+        for (double v : a) {
+            sum = Math.fma(v, v, sum);
+        }
+        return Math.sqrt(sum);
+    }
+
+    private static int fftSize(int length) {
+        return Integer.highestOneBit(length - 1) << 1;
+    }
+
+    /**
+     * Schoolbook product with each coefficient summed as a compensated dot
+     * product, the terms aligned to the largest one's exponent.
+     */
+    private static Factor multiplyCompensated(Factor a, Factor b) {
+        double[] am = a.mantissas;
+        double[] bm = b.mantissas;
+        int[] ae = a.exponents;
+        int[] be = b.exponents;
+        Factor c = new Factor(am.length + bm.length - 1);
+        for (int k = 0; k < c.length(); k++) {
+            int from = Math.max(0, k - bm.length + 1);
+            int to = Math.min(k, am.length - 1);
+            int top = 2 * ZERO_EXPONENT;
+            for (int i = from; i <= to; i++) {
+                top = Math.max(top, ae[i] + be[k - i]);
+            }
+            double sum = 0;
+            double error = 0;
+            for (int i = from; i <= to; i++) {
+                int drop = top - (ae[i] + be[k - i]);
+                if (drop >= POWERS_OF_HALF.length) {
+                    continue;
+                }
+                double scale = POWERS_OF_HALF[drop];
+                double p = am[i] * bm[k - i];
+                double pe = Math.fma(am[i], bm[k - i], -p) * scale;
+                p *= scale;
+                double s = sum + p;
+                error += twoSumError(sum, p, s) + pe;
+                sum = s;
+            }
+            c.set(k, sum + error, top);
+        }
+        return c;
+    }
+
+    private static double twoSumError(double a, double b, double s) {
+        double bb = s - a;
+        return (a - (s - bb)) + (b - bb);
+    }
+
+    /**
+     * Product by one complex FFT of a + ib and one inverse transform.
+     */
+    private static double[] multiplyFft(double[] a, double[] b) {
+        int length = a.length + b.length - 1;
+        int size = fftSize(length);
+        double[] re = new double[size];
+        double[] im = new double[size];
+        System.arraycopy(a, 0, re, 0, a.length);
+        System.arraycopy(b, 0, im, 0, b.length);
+        Fft fft = new Fft(size);
+        fft.transform(re, im, false);
+
+        // A_k = (Z_k + conj Z_{-k}) / 2, B_k = (Z_k - conj Z_{-k}) / 2i; store A_k B_k
+        double[] pr = new double[size];
+        double[] pi = new double[size];
+        for (int k = 0; k < size; k++) {
+            int nk = (size - k) & (size - 1);
+            double ar = (re[k] + re[nk]) / 2;
+            double ai = (im[k] - im[nk]) / 2;
+            double br = (im[k] + im[nk]) / 2;
+            double bi = (re[nk] - re[k]) / 2;
+            pr[k] = ar * br - ai * bi;
+            pi[k] = ar * bi + ai * br;
+        }
+        fft.transform(pr, pi, true);
+        double[] c = new double[length];
+        for (int k = 0; k < length; k++) {
+            c[k] = pr[k] / size;
+        }
+        return c;
+    }
+
+    /** Iterative radix-2 transform with a table of directly computed twiddles */
+    private static final class Fft {
+        private final int size;
+        private final double[] cos;
+        private final double[] sin;
+
+        Fft(int size) {
+            this.size = size;
+            this.cos = new double[size / 2];
+            this.sin = new double[size / 2];
+            for (int i = 0; i < size / 2; i++) {
+                double angle = 2 * Math.PI * i / size;
+                cos[i] = Math.cos(angle);
+                sin[i] = Math.sin(angle);
+            }
+        }
+
+        void transform(double[] re, double[] im, boolean inverse) {
+            for (int i = 1, j = 0; i < size; i++) {
+                int bit = size >> 1;
+                for (; (j & bit) != 0; bit >>= 1) {
+                    j ^= bit;
+                }
+                j ^= bit;
+                if (i < j) {
+                    double t = re[i];
+                    re[i] = re[j];
+                    re[j] = t;
+                    t = im[i];
+                    im[i] = im[j];
+                    im[j] = t;
+                }
+            }
+            double sign = inverse ? 1 : -1;
+            for (int half = 1; half < size; half <<= 1) {
+                int stride = size / (2 * half);
+                for (int start = 0; start < size; start += 2 * half) {
+                    for (int k = 0; k < half; k++) {
+                        double wr = cos[k * stride];
+                        double wi = sign * sin[k * stride];
+                        int u = start + k;
+                        int v = u + half;
+                        double xr = re[v] * wr - im[v] * wi;
+                        double xi = re[v] * wi + im[v] * wr;
+                        re[v] = re[u] - xr;
+                        im[v] = im[u] - xi;
+                        re[u] += xr;
+                        im[u] += xi;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Exact coefficients of prod(x - r_i) for integer roots.
+     */
+    public static BigInteger[] expand(BigInteger[] roots) {
+        if (roots.length == 0) {
+            return new BigInteger[] { BigInteger.ONE };
+        }
+        return expand(roots, 0, roots.length);
+    }
+
+    private static BigInteger[] expand(BigInteger[] roots, int lo, int hi) {
+        if (hi - lo == 1) {
+            return new BigInteger[] { roots[lo].negate(), BigInteger.ONE };
+        }
+        int mid = (lo + hi) >>> 1;
+        return multiply(expand(roots, lo, mid), expand(roots, mid, hi));
+    }
+
+    /**
+     * Exact coefficients for decimal roots. With s the largest scale,
+     * prod(x - a_i / 10^s) = 10^(-sn) prod(10^s x - a_i), so the integer
+     * expansion gives coefficient j as an exact decimal with scale s(n - j).
+     */
+    public static BigDecimal[] expandExact(BigDecimal[] roots) {
+        int scale = 0;
+        for (BigDecimal root : roots) {
+            scale = Math.max(scale, root.scale());
+        }
+        BigInteger[] integers = new BigInteger[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            integers[i] = roots[i].setScale(scale).unscaledValue();
+        }
+        BigInteger[] q = expand(integers);
+        int n = roots.length;
+        BigDecimal[] coefficients = new BigDecimal[n + 1];
+        for (int j = 0; j <= n; j++) {
+            coefficients[j] = new BigDecimal(q[j], Math.multiplyExact(scale, n - j));
+        }
+        return coefficients;
+    }
+
+    /**
+     * Largest error of double coefficients of prod(x - r_i) against the
+     * exact expansion of the same roots, with each coefficient's error
+     * measured relative to the matching coefficient of prod(x + |r_i|).
+     * A sound expansion stays within a small multiple of n * 2^-53. Every
+     * double is a dyadic rational, so the exact side scales the roots by
+     * one power of two into integers; its cost grows with n^2 times the
+     * roots' bit spread, so this is a check for moderate n.
+     */
+    public static double expansionError(double[] roots, double[] coefficients) {
+        int n = roots.length;
+        if (coefficients.length != n + 1) {
+            throw new IllegalArgumentException("Expected " + (n + 1) + " coefficients, got " + coefficients.length);
+        }
+        // r_i = m_i / 2^s for integers m_i
+        int s = 0;
+        for (double root : roots) {
+            if (!Double.isFinite(root)) {
+                throw new IllegalArgumentException("Root is not a finite number: " + root);
+            }
+            if (root != 0) {
+                s = Math.max(s, MANTISSA_BITS - Math.max(Math.getExponent(root), Double.MIN_EXPONENT));
+            }
+        }
+        BigInteger[] integers = new BigInteger[n];
+        BigInteger[] absolute = new BigInteger[n];
+        for (int i = 0; i < n; i++) {
+            integers[i] = dyadic(roots[i], s);
+            absolute[i] = integers[i].abs().negate();
+        }
+        // Coefficient j is q_j / 2^(s (n - j)), and its error is measured against Q_j / 2^(s (n - j))
+        BigInteger[] q = expand(integers);
+        BigInteger[] bound = expand(absolute);
+        double worst = 0;
+        for (int j = 0; j <= n; j++) {
+            double c = coefficients[j];
+            int scale = Math.multiplyExact(s, n - j);
+            double rounded = ratio(q[j], BigInteger.ONE.shiftLeft(scale));
+            if (Double.isInfinite(rounded)) {
+                // Overflows a double: only the right infinity is correct
+                if (c != rounded) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                continue;
+            }
+            if (!Double.isFinite(c)) {
+                return Double.POSITIVE_INFINITY;
+            }
+            // Compare c 2^(s (n - j)) with q_j, both as integers
+            int shift = ulpExponent(c) + scale;
+            BigInteger scaled;
+            BigInteger exact = q[j];
+            BigInteger reference = bound[j];
+            if (shift >= 0) {
+                scaled = dyadic(c, scale);
+            } else {
+                scaled = dyadic(c, -ulpExponent(c));
+                exact = exact.shiftLeft(-shift);
+                reference = reference.shiftLeft(-shift);
+            }
+            BigInteger error = scaled.subtract(exact).abs();
+            // Below the normal range only absolute accuracy is possible
+            int floor = scale + Double.MIN_EXPONENT + Math.max(0, -shift);
+            if (floor >= 0) {
+                reference = reference.max(BigInteger.ONE.shiftLeft(floor));
+            }
+            if (reference.signum() == 0) {
+                if (error.signum() != 0) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                continue;
+            }
+            worst = Math.max(worst, ratio(error, reference));
+        }
+        return worst;
+    }
+
+    /** Exponent of the last mantissa bit of a finite double */
+    private static int ulpExponent(double value) {
+        return Math.max(Math.getExponent(value), Double.MIN_EXPONENT) - MANTISSA_BITS;
+    }
+
+    /** value * 2^shift, which must be an integer */
+    private static BigInteger dyadic(double value, int shift) {
+        int e = ulpExponent(value);
+        return BigInteger.valueOf((long) Math.scalb(value, -e)).shiftLeft(e + shift);
+    }
+
+    /** a / b for b > 0, to about double precision however long the operands are */
+    private static double ratio(BigInteger a, BigInteger b) {
+        int shiftA = Math.max(0, a.bitLength() - Long.SIZE + 2);
+        int shiftB = Math.max(0, b.bitLength() - Long.SIZE + 2);
+        double quotient = a.shiftRight(shiftA).doubleValue() / b.shiftRight(shiftB).doubleValue();
+        return Math.scalb(quotient, (int) Math.max(-MAX_SCALE, Math.min(MAX_SCALE, (long) shiftA - shiftB)));
+    }
+
+    /**
+     * Product of two exact coefficient arrays. Above the threshold both are
+     * packed into integers at x = 2^w, with w wide enough for any product
+     * coefficient and its sign, multiplied once and unpacked.
+     */
+    static BigInteger[] multiply(BigInteger[] a, BigInteger[] b) {
+        BigInteger[] c = new BigInteger[a.length + b.length - 1];
+        if (Math.min(a.length, b.length) <= KRONECKER_THRESHOLD) {
+            Arrays.fill(c, BigInteger.ZERO);
+            for (int i = 0; i < a.length; i++) {
+                if (a[i].signum() == 0) {
+                    continue;
+                }
+                for (int j = 0; j < b.length; j++) {
+                    c[i + j] = c[i + j].add(a[i].multiply(b[j]));
+                }
+            }
+            return c;
+        }
+        // |c_k| <= min(la, lb) max|a| max|b|, plus a sign bit; whole bytes keep slots aligned
+        long bits = (long) maxBitLength(a) + maxBitLength(b)
+            + (32 - Integer.numberOfLeadingZeros(Math.min(a.length, b.length))) + 1;
+        int width = Math.toIntExact((bits + 7) / 8);
+        BigInteger product = pack(a, width).multiply(pack(b, width));
+        unpack(product, width, c);
+        return c;
+    }
+
+    private static int maxBitLength(BigInteger[] values) {
+        int max = 0;
+        for (BigInteger value : values) {
+            max = Math.max(max, value.bitLength());
+        }
+        return max;
+    }
+
+    /**
+     * sum values[i] 2^(8 width i): positive and negative coefficients are
+     * laid out separately as bytes and subtracted once.
+     */
+    private static BigInteger pack(BigInteger[] values, int width) {
+        int length = Math.multiplyExact(values.length, width);
+        byte[] positive = new byte[length];
+        byte[] negative = new byte[length];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].signum() == 0) {
+                continue;
+            }
+            byte[] magnitude = values[i].abs().toByteArray();
+            // toByteArray may lead with a sign byte of zero
+            int skip = magnitude[0] == 0 ? 1 : 0;
+            int count = magnitude.length - skip;
+            // Big-endian: slot i ends width i bytes from the end
+            int end = length - width * i;
+            System.arraycopy(magnitude, skip, values[i].signum() > 0 ? positive : negative, end - count, count);
+        }
+        return new BigInteger(1, positive).subtract(new BigInteger(1, negative));
+    }
+
+    /**
+     * Coefficients back from sum c_k 2^(8 width k), each |c_k| below
+     * 2^(8 width - 1): slots are read as unsigned bytes and brought into the
+     * signed range by borrowing from the next slot.
+     */
+    private static void unpack(BigInteger packed, int width, BigInteger[] c) {
+        boolean negated = packed.signum() < 0;
+        byte[] bytes = packed.abs().toByteArray();
+        BigInteger half = BigInteger.ONE.shiftLeft(8 * width - 1);
+        BigInteger full = half.shiftLeft(1);
+        BigInteger carry = BigInteger.ZERO;
+        byte[] slot = new byte[width];
+        for (int k = 0; k < c.length; k++) {
+            int end = bytes.length - width * k;
+            int from = Math.max(0, end - width);
+            Arrays.fill(slot, (byte) 0);
+            if (end > 0) {
+                System.arraycopy(bytes, from, slot, width - (end - from), end - from);
+            }
+            BigInteger digit = new BigInteger(1, slot).add(carry);
+            if (digit.compareTo(half) >= 0) {
+                digit = digit.subtract(full);
+                carry = BigInteger.ONE;
+            } else {
+                carry = BigInteger.ZERO;
+            }
+            c[k] = negated ? digit.negate() : digit;
+        }
+    }
+
+    /**
+     * p(x) by Horner's rule, coefficients lowest degree first.
+     */
+    public static double evaluate(double[] coefficients, double x) {
+        double value = 0;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            value = Math.fma(value, x, coefficients[i]);
+        }
+        return value;
+    }
+
+    /**
+     * p(x) exactly.
+     */
+    public static BigDecimal evaluate(BigDecimal[] coefficients, BigDecimal x) {
+        BigDecimal value = BigDecimal.ZERO;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            value = value.multiply(x).add(coefficients[i]);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,479 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long-running reconstruction service on the loopback interface, so
+ * repeated solves skip JVM startup and run on warmed-up code.
+ *
+ * <ul>
+ * <li>POST /reconstruct with a share file (roots.json layout) as the body
+ *     returns {"n", "k", "secret", "status"}. Shares declaring a prime, or
+ *     any shares when the service has a field, are solved over GF(p).</li>
+ * <li>GET /metrics returns request, batching and latency counters.</li>
+ * </ul>
+ *
+ * Each request runs on its own virtual thread where the JVM has them, and
+ * on a cached thread pool otherwise. Requests whose first k x-coordinates
+ * (and field) match are coalesced: the first becomes the leader of a micro
+ * batch and, while other requests are in flight, waits up to the batch
+ * window for more to join. The leader builds the Lagrange weights once and
+ * solves the whole batch with them, reusing the basis values at each extra
+ * x as well.
+ */
+public class SecretService {
+
+    private static final int MAX_BATCH = 256;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String executorKind;
+    private final PrimeField field;
+    private final long batchWindowNanos;
+    private final Map<BatchKey, Batch> open = new HashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedRequests = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Bind to port on the loopback interface (0 for any free port). field
+     * overrides the shares' own prime, as --field does; it may be null.
+     * The batch window comes from hashira.service.batchWindowMicros
+     * (default 200).
+     */
+    public SecretService(int port, PrimeField field) throws IOException {
+        this.field = field;
+        this.batchWindowNanos = Long.getLong("hashira.service.batchWindowMicros", 200) * 1000;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService virtual = virtualThreadExecutor();
+        this.executorKind = virtual != null ? "virtual" : "cached";
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "hashira-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/reconstruct", this::reconstruct);
+        server.createContext("/metrics", this::metrics);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Usage: java SecretService [port] [--field SPEC]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        PrimeField field = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--field".equals(args[i]) && i + 1 < args.length) {
+                field = PrimeField.parse(args[++i]);
+            } else {
+                port = Integer.parseInt(args[i]);
+            }
+        }
+        serve(port, field);
+    }
+
+    /**
+     * Start a service and stop it when the JVM exits.
+     */
+    static SecretService serve(int port, PrimeField field) throws IOException {
+        SecretService service = new SecretService(port, field);
+        service.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(service::stop, "hashira-service-stop"));
+        System.err.println("Listening on http://" + service.address().getHostString() + ":"
+                           + service.address().getPort() + " (" + service.executorKind + " threads)");
+        return service;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /** Executors.newVirtualThreadPerTaskExecutor() on JVMs that have it, else null. */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void reconstruct(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        requests.incrementAndGet();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                fail(exchange, 405, "Use POST with a share file as the body");
+                return;
+            }
+            Request request = new Request();
+            ResultCache.Result result;
+            try {
+                try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.PARSE, "service");
+                     ShareFileReader reader = new ShareFileReader(exchange.getRequestBody())) {
+                    reader.read(request);
+                    span.points(request.count);
+                }
+                result = solve(request);
+            } catch (IOException | IllegalArgumentException | ArithmeticException e) {
+                fail(exchange, 400, e.getMessage());
+                return;
+            }
+            if (!ResultCache.VERIFIED.equals(result.status)) {
+                failed.incrementAndGet();
+            }
+            send(exchange, 200, "{\"n\": " + result.n + ", \"k\": " + result.k + ", \"secret\": \""
+                 + result.secret + "\", \"status\": \"" + result.status + "\"}\n");
+        } catch (RuntimeException e) {
+            fail(exchange, 500, String.valueOf(e));
+        } finally {
+            inFlight.decrementAndGet();
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        double uptime = (System.nanoTime() - startNanos) / 1e9;
+        long requests = this.requests.get();
+        long batches = this.batches.get();
+        LagrangeCache weights = LagrangeCache.shared();
+        String json = String.format(Locale.ROOT,
+            "{\n  \"uptimeSeconds\": %.3f,\n  \"threads\": \"%s\",\n  \"requests\": %d,\n  \"failed\": %d,\n"
+            + "  \"inFlight\": %d,\n  \"requestsPerSecond\": %.1f,\n  \"batches\": %d,\n"
+            + "  \"meanBatchSize\": %.2f,\n  \"latencyNanos\": %s,\n"
+            + "  \"lagrangeCache\": {\"size\": %d, \"hits\": %d, \"misses\": %d}\n}\n",
+            uptime, executorKind, requests, failed.get(), inFlight.get(), requests / uptime, batches,
+            batches == 0 ? 0.0 : (double) batchedRequests.get() / batches, PhaseMetrics.summary(latency),
+            weights.size(), weights.hits(), weights.misses());
+        send(exchange, 200, json);
+    }
+
+    private void fail(HttpExchange exchange, int code, String message) throws IOException {
+        failed.incrementAndGet();
+        String escaped = String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", " ");
+        send(exchange, code, "{\"error\": \"" + escaped + "\"}\n");
+    }
+
+    private static void send(HttpExchange exchange, int code, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Join or lead the micro batch for this request's x-set and wait for its result.
+     */
+    ResultCache.Result solve(Request request) throws IOException {
+        int k = Math.min(request.k, request.count);
+        if (k < 1) {
+            throw new IllegalArgumentException("no points");
+        }
+        request.sortBasis(k);
+        PrimeField f = field != null || request.prime == 0 ? field : PrimeField.of(request.prime);
+        BatchKey key = new BatchKey(f == null ? 0 : f.modulus(), Arrays.copyOf(request.xs, k));
+
+        Batch batch;
+        boolean leader = false;
+        synchronized (open) {
+            batch = open.get(key);
+            if (batch == null) {
+                batch = new Batch(Thread.currentThread());
+                open.put(key, batch);
+                leader = true;
+            }
+            batch.requests.add(request);
+            if (batch.requests.size() >= MAX_BATCH) {
+                open.remove(key);
+                LockSupport.unpark(batch.leader);
+            }
+        }
+        if (leader) {
+            if (batchWindowNanos > 0 && inFlight.get() > 1) {
+                long deadline = System.nanoTime() + batchWindowNanos;
+                for (long wait = batchWindowNanos; wait > 0 && !closed(key, batch); wait = deadline - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            synchronized (open) {
+                open.remove(key, batch);
+            }
+            run(batch, f, key.xs);
+        }
+        try {
+            return request.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a batch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /** Whether the batch has been taken off the open map because it filled up. */
+    private boolean closed(BatchKey key, Batch batch) {
+        synchronized (open) {
+            return open.get(key) != batch;
+        }
+    }
+
+    /**
+     * Solve every request in a closed batch with one set of weights.
+     */
+    private void run(Batch batch, PrimeField f, long[] basis) {
+        batches.incrementAndGet();
+        batchedRequests.addAndGet(batch.requests.size());
+        Basis weights;
+        try {
+            weights = f != null ? new FieldBasis(f, basis) : new ExactBasis(basis);
+        } catch (RuntimeException e) {
+            for (Request request : batch.requests) {
+                request.result.completeExceptionally(e);
+            }
+            return;
+        }
+        try (PhaseMetrics.Span span = PhaseMetrics.begin(PhaseMetrics.Phase.INTERPOLATE, "service")) {
+            for (Request request : batch.requests) {
+                try {
+                    request.result.complete(weights.solve(request, basis.length));
+                } catch (RuntimeException e) {
+                    request.result.completeExceptionally(e);
+                }
+            }
+            span.points(batch.requests.size() * basis.length);
+        }
+    }
+
+    /** Lagrange weights for one x-set, with the basis values at each x memoized. */
+    private interface Basis {
+        ResultCache.Result solve(Request request, int k);
+    }
+
+    /**
+     * Exact weights from the shared LagrangeCache; values are compared over
+     * the common denominator, so nothing is divided except the secret.
+     */
+    private static final class ExactBasis implements Basis {
+        private final BarycentricWeights weights;
+        private final Map<Long, BigInteger[]> coefficients = new HashMap<>();
+
+        ExactBasis(long[] xs) {
+            this.weights = LagrangeCache.shared().weightsFor(xs);
+        }
+
+        @Override
+        public ResultCache.Result solve(Request request, int k) {
+            BigInteger[] ys = Arrays.copyOf(request.ys, k);
+            String secret = weights.constantTerm(ys).toString();
+            boolean verified = true;
+            for (int i = k; i < request.count && verified; i++) {
+                BigInteger[] c = coefficients.computeIfAbsent(request.xs[i], weights::coefficientsAt);
+                BigInteger scaled = BigInteger.ZERO;
+                for (int j = 0; j < k; j++) {
+                    scaled = scaled.add(c[j].multiply(ys[j]));
+                }
+                verified = scaled.equals(weights.denominator().multiply(request.ys[i]));
+            }
+            return ResultCache.Result.of(request.n, request.k, secret, verified);
+        }
+    }
+
+    /**
+     * Weights w_i = 1 / prod(x_i - x_j) mod p; the basis values at t are
+     * then w_i prod(t - x_j), j != i, from prefix and suffix products.
+     */
+    private static final class FieldBasis implements Basis {
+        private final PrimeField f;
+        private final long[] xs;
+        private final long[] weights;
+        private final Map<Long, long[]> coefficients = new HashMap<>();
+
+        FieldBasis(PrimeField f, long[] basis) {
+            this.f = f;
+            int k = basis.length;
+            this.xs = new long[k];
+            for (int i = 0; i < k; i++) {
+                xs[i] = f.encode(basis[i]);
+            }
+            this.weights = new long[k];
+            for (int i = 0; i < k; i++) {
+                long d = f.one();
+                for (int j = 0; j < k; j++) {
+                    if (j != i) {
+                        d = f.mul(d, f.sub(xs[i], xs[j]));
+                    }
+                }
+                if (d == 0) {
+                    throw new IllegalArgumentException("x-coordinates collide mod " + f.modulus());
+                }
+                weights[i] = d;
+            }
+            f.batchInverse(weights, weights, new long[k], k);
+        }
+
+        @Override
+        public ResultCache.Result solve(Request request, int k) {
+            long[] ys = new long[request.count];
+            for (int i = 0; i < ys.length; i++) {
+                ys[i] = f.encode(request.ys[i]);
+            }
+            String secret = Long.toString(f.decode(valueAt(0, ys)));
+            boolean verified = true;
+            for (int i = k; i < request.count && verified; i++) {
+                verified = valueAt(request.xs[i], ys) == ys[i];
+            }
+            return ResultCache.Result.of(request.n, request.k, secret, verified);
+        }
+
+        private long valueAt(long x, long[] ys) {
+            long[] c = coefficients.computeIfAbsent(x, this::coefficientsAt);
+            long value = 0;
+            for (int i = 0; i < c.length; i++) {
+                value = f.add(value, f.mul(c[i], ys[i]));
+            }
+            return value;
+        }
+
+        private long[] coefficientsAt(long x) {
+            int k = xs.length;
+            long t = f.encode(x);
+            long[] c = new long[k];
+            long prefix = f.one();
+            for (int i = 0; i < k; i++) {
+                c[i] = prefix;
+                prefix = f.mul(prefix, f.sub(t, xs[i]));
+            }
+            long suffix = f.one();
+            for (int i = k - 1; i >= 0; i--) {
+                c[i] = f.mul(f.mul(c[i], suffix), weights[i]);
+                suffix = f.mul(suffix, f.sub(t, xs[i]));
+            }
+            return c;
+        }
+    }
+
+    /** One request's shares, and the future its batch completes. */
+    static final class Request implements ShareFileReader.Listener {
+        int n;
+        int k;
+        int count;
+        long prime;
+        long[] xs = new long[16];
+        BigInteger[] ys = new BigInteger[16];
+        final CompletableFuture<ResultCache.Result> result = new CompletableFuture<>();
+
+        /** Put the first k points in ascending x order, to line up with the weights. */
+        void sortBasis(int k) {
+            for (int i = 1; i < k; i++) {
+                long x = xs[i];
+                BigInteger y = ys[i];
+                int j = i - 1;
+                for (; j >= 0 && xs[j] > x; j--) {
+                    xs[j + 1] = xs[j];
+                    ys[j + 1] = ys[j];
+                }
+                xs[j + 1] = x;
+                ys[j + 1] = y;
+            }
+        }
+
+        @Override
+        public void keys(int n, int k) {
+            this.n = n;
+            this.k = k;
+        }
+
+        @Override
+        public void prime(long p) {
+            this.prime = p;
+        }
+
+        @Override
+        public void point(HashiraSecretSharing.PointData point) {
+            if (count == xs.length) {
+                xs = Arrays.copyOf(xs, count * 2);
+                ys = Arrays.copyOf(ys, count * 2);
+            }
+            xs[count] = point.x;
+            ys[count] = BaseConverter.toBigInteger(point.value, point.base);
+            count++;
+        }
+    }
+
+    /** Requests waiting on one set of weights; guarded by the open map's lock. */
+    private static final class Batch {
+        final Thread leader;
+        final List<Request> requests = new ArrayList<>();
+
+        Batch(Thread leader) {
+            this.leader = leader;
+        }
+    }
+
+    /** The field modulus (0 for exact) and the sorted basis x-coordinates. */
+    private static final class BatchKey {
+        final long modulus;
+        final long[] xs;
+        private final int hash;
+
+        BatchKey(long modulus, long[] xs) {
+            this.modulus = modulus;
+            this.xs = xs;
+            this.hash = 31 * Long.hashCode(modulus) + Arrays.hashCode(xs);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) o;
+            return modulus == other.modulus && Arrays.equals(xs, other.xs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Single-pass streaming reader for share files in the roots.json layout:
+ *
+ * <pre>
+ * { "keys": { "n": 4, "k": 3 }, "1": { "base": "10", "value": "4" }, ... }
+ * </pre>
+ *
+ * "keys" may also carry a "prime" when the shares were generated over GF(p).
+ *
+ * The file is tokenized straight off a channel through a fixed-size buffer
+ * and each point is handed to the listener as soon as its object closes,
+ * so memory stays bounded no matter how many points the file holds.
+ * Members other than "keys" and numeric point keys are skipped.
+ */
+public class ShareFileReader extends JsonTokenizer {
+
+    /**
+     * Receives the file contents in document order.
+     */
+    public interface Listener {
+        void keys(int n, int k);
+
+        /** The field prime, for files that declare one; called before keys. */
+        default void prime(long p) {
+        }
+
+        void point(HashiraSecretSharing.PointData point);
+    }
+
+    public ShareFileReader(ReadableByteChannel channel) {
+        super(channel);
+    }
+
+    public ShareFileReader(InputStream in) {
+        this(Channels.newChannel(in));
+    }
+
+    public static ShareFileReader open(Path path) throws IOException {
+        return new ShareFileReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Read the whole document, reporting keys and points to the listener.
+     */
+    public void read(Listener listener) throws IOException {
+        expect('{');
+        if (peekToken() == '}') {
+            next();
+            return;
+        }
+        do {
+            String key = readString();
+            expect(':');
+            if ("keys".equals(key)) {
+                readKeys(listener);
+            } else if (isInteger(key) && peekToken() == '{') {
+                readPoint(Integer.parseInt(key), listener);
+            } else {
+                skipValue();
+            }
+        } while (nextMember('}'));
+    }
+
+    private void readKeys(Listener listener) throws IOException {
+        int n = 0;
+        int k = 0;
+        expect('{');
+        if (peekToken() == '}') {
+            next();
+        } else {
+            do {
+                String key = readString();
+                expect(':');
+                if ("n".equals(key)) {
+                    n = readInt();
+                } else if ("k".equals(key)) {
+                    k = readInt();
+                } else if ("prime".equals(key)) {
+                    listener.prime(readLong());
+                } else {
+                    skipValue();
+                }
+            } while (nextMember('}'));
+        }
+        listener.keys(n, k);
+    }
+
+    private void readPoint(int x, Listener listener) throws IOException {
+        int base = -1;
+        String value = null;
+        expect('{');
+        if (peekToken() == '}') {
+            next();
+        } else {
+            do {
+                String key = readString();
+                expect(':');
+                if ("base".equals(key)) {
+                    base = readInt();
+                } else if ("value".equals(key)) {
+                    value = readString();
+                } else {
+                    skipValue();
+                }
+            } while (nextMember('}'));
+        }
+        // Incomplete point objects are ignored, as the regex parser did
+        if (base >= 0 && value != null) {
+            listener.point(new HashiraSecretSharing.PointData(x, base, value));
+        }
+    }
+
+    private static boolean isInteger(String key) {
+        if (key.isEmpty() || key.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) < '0' || key.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,253 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Splits secrets into Shamir shares over a prime field.
+ *
+ * Each secret gets a random polynomial of degree k - 1 with the secret as
+ * its constant term, evaluated by Horner's rule at every x-coordinate.
+ * Coefficients are drawn in batches, so the random source is touched once
+ * per {@link #RANDOM_BATCH} values rather than once per coefficient.
+ * Large jobs are cut into chunks that run on the common fork-join pool;
+ * each chunk has its own random source, so the workers never contend.
+ *
+ * Randomness comes from {@link SecureRandom} unless a seed is given, in
+ * which case the output is reproducible, whatever the thread count.
+ * Seeded shares are for test data only.
+ */
+public class ShareGenerator {
+
+    /** Random values drawn per refill. */
+    static final int RANDOM_BATCH = 1024;
+
+    /** Share evaluations per parallel chunk. */
+    private static final int CHUNK_WORK = 1 << 16;
+
+    private final PrimeField field;
+    private final SplittableRandom seeded;
+
+    public ShareGenerator(PrimeField field) {
+        this.field = field;
+        this.seeded = null;
+    }
+
+    public ShareGenerator(PrimeField field, long seed) {
+        this.field = field;
+        this.seeded = new SplittableRandom(seed);
+    }
+
+    public PrimeField field() {
+        return field;
+    }
+
+    /**
+     * The usual x-coordinates 1..n.
+     */
+    public static long[] xs(int n) {
+        long[] xs = new long[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = i + 1;
+        }
+        return xs;
+    }
+
+    /**
+     * Shares of one secret at each x; any k of them recover it.
+     */
+    public long[] split(long secret, int k, long[] xs) {
+        return splitAll(new long[] { secret }, k, xs)[0];
+    }
+
+    /**
+     * Shares of every secret, one row per secret, each with its own polynomial.
+     */
+    public long[][] splitAll(long[] secrets, int k, long[] xs) {
+        if (k < 1 || xs.length < k) {
+            throw new IllegalArgumentException("Need 1 <= k <= n, got k = " + k + ", n = " + xs.length);
+        }
+        long[] encodedXs = new long[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            if (field.encode(xs[i]) == 0) {
+                throw new IllegalArgumentException("x = " + xs[i] + " would reveal the secret");
+            }
+            encodedXs[i] = field.encode(xs[i]);
+        }
+        long[][] coefficients = new long[secrets.length][];
+        long[][] shares = new long[secrets.length][xs.length];
+
+        // Chunks of whole secrets, or slices of the shares of a single secret
+        long work = (long) Math.max(1, secrets.length) * xs.length * k;
+        int secretsPerChunk = (int) Math.max(1, Math.min(secrets.length, CHUNK_WORK / ((long) xs.length * k)));
+        int chunks = Math.max(1, (secrets.length + secretsPerChunk - 1) / secretsPerChunk);
+        RandomGenerator[] sources = sources(chunks);
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            Batch random = new Batch(sources[chunk]);
+            int end = Math.min(secrets.length, (chunk + 1) * secretsPerChunk);
+            for (int s = chunk * secretsPerChunk; s < end; s++) {
+                coefficients[s] = polynomial(secrets[s], k, random);
+            }
+        });
+
+        if (secrets.length == 1 && work > CHUNK_WORK) {
+            int sharesPerChunk = Math.max(1, CHUNK_WORK / k);
+            IntStream.range(0, (xs.length + sharesPerChunk - 1) / sharesPerChunk).parallel().forEach(chunk ->
+                evaluate(coefficients[0], encodedXs, shares[0],
+                         chunk * sharesPerChunk, Math.min(xs.length, (chunk + 1) * sharesPerChunk)));
+        } else {
+            IntStream.range(0, secrets.length).parallel().forEach(s ->
+                evaluate(coefficients[s], encodedXs, shares[s], 0, xs.length));
+        }
+        return shares;
+    }
+
+    /** Encoded coefficients: the secret, then k - 1 uniform random values. */
+    private long[] polynomial(long secret, int k, Batch random) {
+        if (secret < 0 || secret >= field.modulus()) {
+            throw new IllegalArgumentException("Secret must be in [0, " + field.modulus() + "): " + secret);
+        }
+        long[] coefficients = new long[k];
+        coefficients[0] = field.encode(secret);
+        for (int i = 1; i < k; i++) {
+            coefficients[i] = field.encode(random.next());
+        }
+        return coefficients;
+    }
+
+    /** Canonical f(x) for xs[from, to), by Horner's rule. */
+    private void evaluate(long[] coefficients, long[] xs, long[] out, int from, int to) {
+        int top = coefficients.length - 1;
+        for (int i = from; i < to; i++) {
+            long x = xs[i];
+            long value = coefficients[top];
+            for (int j = top - 1; j >= 0; j--) {
+                value = field.add(field.mul(value, x), coefficients[j]);
+            }
+            out[i] = field.decode(value);
+        }
+    }
+
+    private RandomGenerator[] sources(int count) {
+        RandomGenerator[] sources = new RandomGenerator[count];
+        if (seeded != null) {
+            synchronized (seeded) {
+                for (int i = 0; i < count; i++) {
+                    sources[i] = seeded.split();
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                sources[i] = new SecureRandom();
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Uniform residues in [0, p), refilled {@link #RANDOM_BATCH} at a time and
+     * drawn by rejection from the bit length of p so there is no modulo bias.
+     */
+    private final class Batch {
+        private final RandomGenerator source;
+        private final byte[] bytes;
+        private final long[] values = new long[RANDOM_BATCH];
+        private final long mask = -1L >>> Long.numberOfLeadingZeros(field.modulus());
+        private int next = RANDOM_BATCH;
+
+        Batch(RandomGenerator source) {
+            this.source = source;
+            this.bytes = source instanceof SecureRandom ? new byte[8 * RANDOM_BATCH] : null;
+        }
+
+        long next() {
+            while (true) {
+                if (next == RANDOM_BATCH) {
+                    refill();
+                }
+                long value = values[next++] & mask;
+                if (value < field.modulus()) {
+                    return value;
+                }
+            }
+        }
+
+        private void refill() {
+            if (bytes != null) {
+                ((SecureRandom) source).nextBytes(bytes);
+                ByteBuffer.wrap(bytes).asLongBuffer().get(values);
+            } else {
+                for (int i = 0; i < RANDOM_BATCH; i++) {
+                    values[i] = source.nextLong();
+                }
+            }
+            next = 0;
+        }
+    }
+
+    /**
+     * Write shares in the roots.json layout, cycling through the given bases
+     * and recording the prime so readers reconstruct over the right field.
+     */
+    public static void writeJson(Writer out, PrimeField field, int k, long[] xs, long[] ys, int[] bases)
+            throws IOException {
+        out.write("{\n    \"keys\": {\n");
+        out.write("        \"n\": " + xs.length + ",\n");
+        out.write("        \"k\": " + k + ",\n");
+        out.write("        \"prime\": \"" + field.modulus() + "\"\n    }");
+        for (int i = 0; i < xs.length; i++) {
+            if (xs[i] < 1 || xs[i] > 999_999_999) {
+                throw new IllegalArgumentException("x must be in [1, 999999999] for JSON keys: " + xs[i]);
+            }
+            int base = bases[i % bases.length];
+            out.write(",\n    \"" + xs[i] + "\": {\n");
+            out.write("        \"base\": \"" + base + "\",\n");
+            out.write("        \"value\": \"" + Long.toString(ys[i], base) + "\"\n    }");
+        }
+        out.write("\n}\n");
+    }
+
+    /**
+     * Usage: java ShareGenerator secret k n [--field p] [--bases 16,10,2] [--seed s]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: java ShareGenerator secret k n [--field p] [--bases 16,10,2] [--seed s]");
+            System.exit(2);
+        }
+        PrimeField field = PrimeField.of(FastInterpolator.NTT_PRIME);
+        int[] bases = { 10 };
+        Long seed = null;
+        for (int i = 3; i < args.length; i++) {
+            if ("--field".equals(args[i]) && i + 1 < args.length) {
+                field = PrimeField.parse(args[++i]);
+            } else if ("--bases".equals(args[i]) && i + 1 < args.length) {
+                String[] parts = args[++i].split(",");
+                bases = new int[parts.length];
+                for (int j = 0; j < parts.length; j++) {
+                    bases[j] = Integer.parseInt(parts[j].trim());
+                    if (bases[j] < Character.MIN_RADIX || bases[j] > Character.MAX_RADIX) {
+                        throw new IllegalArgumentException("Unsupported base: " + bases[j]);
+                    }
+                }
+            } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            }
+        }
+
+        int k = Integer.parseInt(args[1]);
+        long[] xs = xs(Integer.parseInt(args[2]));
+        ShareGenerator generator = seed == null ? new ShareGenerator(field) : new ShareGenerator(field, seed);
+        long[] ys = generator.split(Long.parseLong(args[0]), k, xs);
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        writeJson(out, field, k, xs, ys, bases);
+        out.flush();
+    }
+}
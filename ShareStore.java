@@ -0,0 +1,242 @@
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Converted shares packed for large archives, with no object per point.
+ *
+ * x-coordinates live in a long[], and y-values are stored off-heap in one
+ * direct buffer in the {@link BinaryShareFile} record layout: a header int
+ * holding the magnitude length shifted left once with the sign in the low
+ * bit, then the magnitude in unsigned big-endian bytes. An int[] index
+ * holds each record's offset. The heap cost is 12 bytes per point,
+ * against roughly 100 for a Point holding a BigInteger, and the garbage
+ * collector never traces the y data.
+ *
+ * Engines read x and y straight from the store. Residues mod a word-size
+ * prime come from the stored bytes directly; BigIntegers are built only
+ * for the values an exact engine actually multiplies.
+ *
+ * A store is filled by one thread and may then be read by any number. The
+ * buffer holds at most 2 GiB of y data. Stores viewing a mapped binary
+ * file ({@link BinaryShareFile#store}) are read-only.
+ */
+public class ShareStore {
+
+    private static final int RECORD_HEADER = 4;
+
+    private long[] xs;
+    private int[] offsets;
+    private ByteBuffer data;
+    private int count;
+    private int end;
+    private final boolean readOnly;
+
+    public ShareStore() {
+        this(16, 1024);
+    }
+
+    /**
+     * Store sized for the given number of points and bytes of y data; both grow as needed.
+     */
+    public ShareStore(int points, int bytes) {
+        this.xs = new long[Math.max(points, 1)];
+        this.offsets = new int[Math.max(points, 1)];
+        this.data = ByteBuffer.allocateDirect(Math.max(bytes, 64));
+        this.readOnly = false;
+    }
+
+    /** A read-only view of records already laid out in data. */
+    ShareStore(long[] xs, int[] offsets, ByteBuffer data) {
+        this.xs = xs;
+        this.offsets = offsets;
+        this.data = data;
+        this.count = xs.length;
+        this.end = data.limit();
+        this.readOnly = true;
+    }
+
+    /** Adds a JSON point, converting its digits without a BigInteger whenever y fits in a long. */
+    public void add(HashiraSecretSharing.PointData point) {
+        if (BaseConverter.fitsInLong(point.value, point.base)) {
+            add(point.x, BaseConverter.toLong(point.value, point.base));
+        } else {
+            add(point.x, BaseConverter.toBigInteger(point.value, point.base));
+        }
+    }
+
+    public void add(long x, long y) {
+        // The magnitude as an unsigned long, so Long.MIN_VALUE needs no special case
+        long magnitude = y < 0 ? -y : y;
+        int length = (Long.SIZE - Long.numberOfLeadingZeros(magnitude) + 7) / 8;
+        int offset = reserve(x, length);
+        data.putInt(offset, length << 1 | (y < 0 ? 1 : 0));
+        for (int i = 0; i < length; i++) {
+            data.put(offset + RECORD_HEADER + i, (byte) (magnitude >>> (8 * (length - 1 - i))));
+        }
+    }
+
+    public void add(long x, BigInteger y) {
+        if (y.bitLength() < Long.SIZE) {
+            add(x, y.longValue());
+            return;
+        }
+        byte[] magnitude = y.abs().toByteArray();
+        int skip = magnitude[0] == 0 ? 1 : 0;
+        int length = magnitude.length - skip;
+        int offset = reserve(x, length);
+        data.putInt(offset, length << 1 | (y.signum() < 0 ? 1 : 0));
+        data.put(offset + RECORD_HEADER, magnitude, skip, length);
+    }
+
+    /**
+     * Empty the store for reuse, keeping its arrays and buffer.
+     */
+    public void clear() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Share store is read-only");
+        }
+        count = 0;
+        end = 0;
+    }
+
+    /** Index a record for x with room for length bytes of magnitude; returns its offset. */
+    private int reserve(long x, int length) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Share store is read-only");
+        }
+        if (count == xs.length) {
+            xs = Arrays.copyOf(xs, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        int size = RECORD_HEADER + length;
+        if (size > data.capacity() - end) {
+            grow(size);
+        }
+        int offset = end;
+        xs[count] = x;
+        offsets[count] = offset;
+        count++;
+        end += size;
+        return offset;
+    }
+
+    private void grow(int needed) {
+        long capacity = Math.max((long) data.capacity() * 2, (long) end + needed);
+        if ((long) end + needed > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Share store is full (" + end + " bytes of y data)");
+        }
+        ByteBuffer larger = ByteBuffer.allocateDirect((int) Math.min(capacity, Integer.MAX_VALUE));
+        ByteBuffer used = data.duplicate();
+        used.position(0).limit(end);
+        larger.put(used);
+        data = larger;
+    }
+
+    /** Number of points stored. */
+    public int size() {
+        return count;
+    }
+
+    public long x(int i) {
+        return xs[i];
+    }
+
+    /** The first k x-coordinates. */
+    public long[] xs(int k) {
+        return Arrays.copyOf(xs, k);
+    }
+
+    public long[] xs() {
+        return xs(count);
+    }
+
+    public BigInteger y(int i) {
+        int offset = offsets[i];
+        int header = data.getInt(offset);
+        byte[] magnitude = new byte[header >>> 1];
+        data.get(offset + RECORD_HEADER, magnitude);
+        return new BigInteger((header & 1) != 0 ? -1 : 1, magnitude);
+    }
+
+    /** The first k y-values. */
+    public BigInteger[] ys(int k) {
+        BigInteger[] ys = new BigInteger[k];
+        for (int i = 0; i < k; i++) {
+            ys[i] = y(i);
+        }
+        return ys;
+    }
+
+    /**
+     * The first k y-values as longs, read from the bytes; null if any does not fit.
+     */
+    public long[] longYs(int k) {
+        return longYs(0, k);
+    }
+
+    /**
+     * y-values from index from (inclusive) to to (exclusive) as longs; null if any does not fit.
+     */
+    public long[] longYs(int from, int to) {
+        long[] ys = new long[to - from];
+        for (int i = from; i < to; i++) {
+            int offset = offsets[i];
+            int header = data.getInt(offset);
+            int length = header >>> 1;
+            if (length > Long.BYTES) {
+                return null;
+            }
+            long magnitude = 0;
+            for (int b = 0; b < length; b++) {
+                magnitude = magnitude << 8 | (data.get(offset + RECORD_HEADER + b) & 0xFF);
+            }
+            if (magnitude < 0) {
+                return null;
+            }
+            ys[i - from] = (header & 1) != 0 ? -magnitude : magnitude;
+        }
+        return ys;
+    }
+
+    /** Bit length of |y| for point i, as BigInteger.bitLength would give it for a positive y. */
+    public int bitLength(int i) {
+        int offset = offsets[i];
+        int length = data.getInt(offset) >>> 1;
+        if (length == 0) {
+            return 0;
+        }
+        int lead = data.get(offset + RECORD_HEADER) & 0xFF;
+        return (length - 1) * 8 + (Integer.SIZE - Integer.numberOfLeadingZeros(lead));
+    }
+
+    /** Largest bitLength over the first k points. */
+    public int maxBitLength(int k) {
+        int bits = 0;
+        for (int i = 0; i < k; i++) {
+            bits = Math.max(bits, bitLength(i));
+        }
+        return bits;
+    }
+
+    /**
+     * y mod p, reduced from the stored bytes.
+     */
+    public long residue(int i, PrimeField field) {
+        return BinaryShareFile.residue(data, offsets[i], field);
+    }
+
+    /** y mod p for every point. */
+    public long[] residues(PrimeField field) {
+        long[] residues = new long[count];
+        for (int i = 0; i < count; i++) {
+            residues[i] = residue(i, field);
+        }
+        return residues;
+    }
+
+    /** Bytes of y data in the off-heap buffer. */
+    public long offHeapBytes() {
+        return end;
+    }
+}
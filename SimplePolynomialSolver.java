@@ -1,17 +1,72 @@
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class SimplePolynomialSolver {
     
+    /** Polynomials above this degree have their coefficients listed in part */
+    private static final int MAX_LISTED_COEFFICIENTS = 20;
+    
+    /** Roots substituted back into the expansion as a check */
+    private static final int MAX_VERIFIED_ROOTS = 5;
+    
+    /**
+     * Usage: java SimplePolynomialSolver [file.json] [--exact | --fast | --check]
+     *        java SimplePolynomialSolver --batch specs.json [--format ndjson|csv] [--threads N]
+     */
     public static void main(String[] args) {
+        String file = "roots.json";
+        boolean exact = false;
+        boolean fast = false;
+        boolean check = false;
+        String batch = null;
+        PolynomialBatch.Format format = PolynomialBatch.Format.NDJSON;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("--exact".equals(args[i])) {
+                    exact = true;
+                } else if ("--fast".equals(args[i])) {
+                    fast = true;
+                } else if ("--check".equals(args[i])) {
+                    check = true;
+                } else if ("--batch".equals(args[i]) && i + 1 < args.length) {
+                    batch = args[++i];
+                } else if ("--format".equals(args[i]) && i + 1 < args.length) {
+                    format = PolynomialBatch.Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                } else {
+                    file = args[i];
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            return;
+        }
+        if (batch != null) {
+            runBatch(batch, format, threads);
+            return;
+        }
         try {
             // Read JSON file
-            String content = new String(Files.readAllBytes(Paths.get("roots.json")));
+            String content = new String(Files.readAllBytes(Paths.get(file)));
+            
+            if (exact) {
+                calculateExactCoefficients(parseRootTokens(content));
+                return;
+            }
             
             // Simple JSON parsing for roots array
             List<Double> rootsList = parseRootsFromJson(content);
@@ -27,12 +82,17 @@ public class SimplePolynomialSolver {
             System.out.println();
             
             // Calculate coefficients based on number of roots
-            if (roots.length == 2) {
+            if (roots.length == 0) {
+                System.out.println("No roots found in " + file);
+            } else if (roots.length == 2) {
                 calculateQuadraticCoefficients(roots);
             } else if (roots.length == 3) {
                 calculateCubicCoefficients(roots);
             } else {
-                System.out.println("This program supports quadratic (2 roots) and cubic (3 roots) polynomials.");
+                calculateGeneralCoefficients(roots, fast);
+            }
+            if (check && roots.length > 0) {
+                checkAgainstExact(roots);
             }
             
         } catch (IOException e) {
@@ -42,31 +102,58 @@ public class SimplePolynomialSolver {
         }
     }
     
+    /**
+     * Expand and verify every spec in file, writing one result per spec to stdout
+     */
+    private static void runBatch(String file, PolynomialBatch.Format format, int threads) {
+        PolynomialBatch batch = new PolynomialBatch(threads, threads * 4, format);
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            long start = System.nanoTime();
+            long specs = batch.run(Paths.get(file), out);
+            System.err.printf("Processed %d polynomials in %.1f ms, %d failed%n",
+                              specs, (System.nanoTime() - start) / 1e6, batch.failures());
+        } catch (IOException e) {
+            System.err.println("Error processing " + file + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Batch interrupted");
+        }
+    }
+    
     /**
      * Simple JSON parser to extract roots array
      */
     private static List<Double> parseRootsFromJson(String jsonContent) {
         List<Double> roots = new ArrayList<>();
+        for (String rootStr : parseRootTokens(jsonContent)) {
+            try {
+                roots.add(Double.parseDouble(rootStr));
+            } catch (NumberFormatException e) {
+                System.err.println("Warning: Could not parse root value: " + rootStr);
+            }
+        }
+        return roots;
+    }
+    
+    /**
+     * The roots array as written, so exact mode sees the decimal digits
+     */
+    private static List<String> parseRootTokens(String jsonContent) {
+        List<String> tokens = new ArrayList<>();
         
         // Find the roots array in JSON
-        Pattern rootsPattern = Pattern.compile("\"roots\"\\s*:\\s*\\[(.*?)\\]");
+        Pattern rootsPattern = Pattern.compile("\"roots\"\\s*:\\s*\\[(.*?)\\]", Pattern.DOTALL);
         Matcher matcher = rootsPattern.matcher(jsonContent);
         
-        if (matcher.find()) {
-            String rootsArrayContent = matcher.group(1);
-            // Split by comma and parse each number
-            String[] rootStrings = rootsArrayContent.split(",");
-            for (String rootStr : rootStrings) {
-                try {
-                    double root = Double.parseDouble(rootStr.trim());
-                    roots.add(root);
-                } catch (NumberFormatException e) {
-                    System.err.println("Warning: Could not parse root value: " + rootStr);
-                }
+        if (matcher.find() && !matcher.group(1).isBlank()) {
+            // Split by comma
+            for (String rootStr : matcher.group(1).split(",")) {
+                tokens.add(rootStr.trim());
             }
         }
         
-        return roots;
+        return tokens;
     }
     
     /**
@@ -83,10 +170,11 @@ public class SimplePolynomialSolver {
         double r1 = roots[0];
         double r2 = roots[1];
         
-        // For monic polynomial (leading coefficient = 1)
-        double a = 1.0;
-        double b = -(r1 + r2);  // Sum of roots with opposite sign
-        double c = r1 * r2;     // Product of roots
+        // Monic polynomial (leading coefficient = 1), expanded with compensated arithmetic
+        double[] coefficients = RootPolynomial.expand(roots);
+        double a = coefficients[2];
+        double b = coefficients[1];  // Sum of roots with opposite sign
+        double c = coefficients[0];  // Product of roots
         
         System.out.println("\n" + "=".repeat(50));
         System.out.println("QUADRATIC POLYNOMIAL ANALYSIS");
@@ -136,11 +224,12 @@ public class SimplePolynomialSolver {
         double r2 = roots[1];
         double r3 = roots[2];
         
-        // For monic polynomial (leading coefficient = 1)
-        double a = 1.0;
-        double b = -(r1 + r2 + r3);                    // Sum of roots
-        double c = r1*r2 + r1*r3 + r2*r3;             // Sum of products taken two at a time
-        double d = -r1*r2*r3;                         // Product of all roots
+        // Monic polynomial (leading coefficient = 1), expanded with compensated arithmetic
+        double[] coefficients = RootPolynomial.expand(roots);
+        double a = coefficients[3];
+        double b = coefficients[2];                    // Sum of roots
+        double c = coefficients[1];                    // Sum of products taken two at a time
+        double d = coefficients[0];                    // Product of all roots
         
         System.out.println("\n" + "=".repeat(50));
         System.out.println("CUBIC POLYNOMIAL ANALYSIS");
@@ -174,4 +263,123 @@ public class SimplePolynomialSolver {
                             root, a, root, b, root, c, root, d, result);
         }
     }
+    
+    /**
+     * Coefficients of a polynomial with any number of roots: (x - r1)...(x - rn)
+     * expanded by a product tree. Shared with PolynomialSolver.
+     */
+    static void calculateGeneralCoefficients(double[] roots) {
+        calculateGeneralCoefficients(roots, false);
+    }
+    
+    /**
+     * As above; fast expands by FFT products, accurate only relative to the
+     * largest coefficients (see {@link RootPolynomial#expandFast})
+     */
+    static void calculateGeneralCoefficients(double[] roots, boolean fast) {
+        int n = roots.length;
+        long start = System.nanoTime();
+        double[] coefficients = fast ? RootPolynomial.expandFast(roots) : RootPolynomial.expand(roots);
+        double millis = (System.nanoTime() - start) / 1e6;
+        
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("POLYNOMIAL OF DEGREE " + n);
+        System.out.println("=".repeat(50));
+        System.out.printf("Expanded in %.1f ms%s\n", millis, fast ? " (FFT, norm-wise error)" : "");
+        
+        System.out.println("\nCoefficients:");
+        for (int j = n; j >= 0; j--) {
+            if (!listed(j, n)) {
+                if (j == n - MAX_LISTED_COEFFICIENTS / 2) {
+                    System.out.println("... (" + (n + 1 - MAX_LISTED_COEFFICIENTS) + " more)");
+                }
+                continue;
+            }
+            System.out.printf("a%d = %.9g (coefficient of x^%d)%s\n", j, coefficients[j], j,
+                              j == 0 ? " ← CONSTANT TERM ←" : "");
+        }
+        
+        System.out.println("\n" + "*".repeat(30));
+        System.out.printf("*** ANSWER: a0 = %.9g ***\n", coefficients[0]);
+        System.out.println("*".repeat(30));
+        
+        boolean finite = true;
+        for (double coefficient : coefficients) {
+            finite &= Double.isFinite(coefficient);
+        }
+        if (!finite) {
+            System.out.println("\nSome coefficients overflow a double; run with --exact for exact values.");
+            return;
+        }
+        
+        System.out.println("\nVerification (substituting roots back into polynomial):");
+        for (int i = 0; i < Math.min(n, MAX_VERIFIED_ROOTS); i++) {
+            System.out.printf("f(%.2f) = %.8g\n", roots[i], RootPolynomial.evaluate(coefficients, roots[i]));
+        }
+    }
+    
+    /**
+     * Compare the double expansion with the exact expansion of the same
+     * doubles; the exact side is slow past a few hundred roots
+     */
+    private static void checkAgainstExact(double[] roots) {
+        int n = roots.length;
+        long start = System.nanoTime();
+        double error = RootPolynomial.expansionError(roots, RootPolynomial.expand(roots));
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("\nLargest coefficient error against the exact expansion: %.3g"
+                          + " (relative to prod(x + |r|), expected below %.3g; checked in %.1f ms)\n",
+                          error, n * Math.ulp(1.0), millis);
+    }
+    
+    /**
+     * Exact coefficients from the decimal roots as written
+     */
+    private static void calculateExactCoefficients(List<String> tokens) {
+        BigDecimal[] roots = new BigDecimal[tokens.size()];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = new BigDecimal(tokens.get(i));
+        }
+        int n = roots.length;
+        long start = System.nanoTime();
+        BigDecimal[] coefficients = RootPolynomial.expandExact(roots);
+        double millis = (System.nanoTime() - start) / 1e6;
+        
+        System.out.println("Exact Polynomial Coefficient Calculator");
+        System.out.println("=======================================");
+        System.out.println("Roots from JSON: " + n);
+        System.out.printf("Expanded exactly in %.1f ms\n", millis);
+        
+        System.out.println("\nCoefficients:");
+        for (int j = n; j >= 0; j--) {
+            if (!listed(j, n)) {
+                if (j == n - MAX_LISTED_COEFFICIENTS / 2) {
+                    System.out.println("... (" + (n + 1 - MAX_LISTED_COEFFICIENTS) + " more)");
+                }
+                continue;
+            }
+            System.out.println("a" + j + " = " + format(coefficients[j]) + (j == 0 ? " ← CONSTANT TERM ←" : ""));
+        }
+        
+        System.out.println("\n" + "*".repeat(30));
+        System.out.println("*** ANSWER: a0 = " + format(coefficients[0]) + " ***");
+        System.out.println("*".repeat(30));
+        
+        System.out.println("\nVerification (substituting roots back into polynomial):");
+        for (int i = 0; i < Math.min(n, MAX_VERIFIED_ROOTS); i++) {
+            System.out.println("f(" + roots[i].toPlainString() + ") = "
+                               + RootPolynomial.evaluate(coefficients, roots[i]).stripTrailingZeros().toPlainString());
+        }
+    }
+    
+    /** Whether coefficient j of a degree-n polynomial is printed: the highest and lowest few */
+    private static boolean listed(int j, int n) {
+        return n < MAX_LISTED_COEFFICIENTS || j > n - MAX_LISTED_COEFFICIENTS / 2 || j < MAX_LISTED_COEFFICIENTS / 2;
+    }
+    
+    /** Exact value in plain notation, or to 30 significant digits if that runs long */
+    private static String format(BigDecimal value) {
+        String plain = value.stripTrailingZeros().toPlainString();
+        return plain.length() <= 60 ? plain : value.round(new MathContext(30)).toString();
+    }
 }
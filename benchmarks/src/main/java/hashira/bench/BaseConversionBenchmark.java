@@ -0,0 +1,61 @@
+package hashira.bench;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converting one encoded y-value as shares are loaded: ShareStore.add,
+ * which parses straight into a long when the value fits (the 48-bit case)
+ * and through BaseConverter's BigInteger path otherwise. The JDK's own
+ * parser is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseConversionBenchmark {
+
+    @Param({ "2", "3", "10", "15", "16", "36" })
+    public int base;
+
+    @Param({ "48", "64", "256", "4096", "65536" })
+    public int bits;
+
+    private String value;
+    private Object point;
+    private Object store;
+
+    @Setup
+    public void setUp() throws Throwable {
+        value = ShareData.randomValues(1, bits, ShareData.random())[0].toString(base);
+        point = (Object) Solver.NEW_POINT_DATA.invokeExact(1, base, value);
+        store = (Object) Solver.NEW_SHARE_STORE.invokeExact();
+    }
+
+    /** One point into a reused store, as each batch worker loads a file. */
+    @Benchmark
+    public Object shareStoreAdd() throws Throwable {
+        Solver.SHARE_STORE_CLEAR.invokeExact(store);
+        Solver.SHARE_STORE_ADD_POINT.invokeExact(store, point);
+        return store;
+    }
+
+    @Benchmark
+    public BigInteger jdkBigIntegerParse() {
+        return new BigInteger(value, base);
+    }
+}
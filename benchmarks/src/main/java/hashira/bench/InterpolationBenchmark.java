@@ -0,0 +1,104 @@
+package hashira.bench;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reconstruction of f(0) from k shares at x = 1..k: through the engine
+ * selector as the solver runs it, and the engines behind it one by one.
+ *
+ * With x = 1..k every Lagrange coefficient L_i(0) is an integer, so random
+ * y-values of the requested bit length always give an integral secret.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterpolationBenchmark {
+
+    @Param({ "3", "7", "64", "1024", "16384" })
+    public int k;
+
+    @Param({ "32", "64", "256", "1024" })
+    public int bits;
+
+    private long[] xs;
+    private BigInteger[] ys;
+    private long[] residues;
+    private Object cache;
+    private Object fieldLagrange;
+    private Object selector;
+    private Object store;
+
+    @Setup
+    public void setUp() throws Throwable {
+        xs = ShareData.xs(k);
+        ys = ShareData.randomValues(k, bits, ShareData.random());
+        cache = (Object) Solver.SHARED_CACHE.invokeExact();
+        // Warm the coefficient table so the cached benchmark measures only the dot product
+        BigInteger ignored = (BigInteger) Solver.CACHED_CONSTANT_TERM.invokeExact(cache, xs, ys);
+
+        BigInteger p = BigInteger.ONE.shiftLeft(61).subtract(BigInteger.ONE);
+        residues = new long[k];
+        for (int i = 0; i < k; i++) {
+            residues[i] = ys[i].mod(p).longValue();
+        }
+        Object field = (Object) Solver.PRIME_FIELD.invokeExact(p.longValue());
+        fieldLagrange = (Object) Solver.NEW_FIELD_LAGRANGE.invokeExact(field, k);
+
+        selector = (Object) Solver.SHARED_SELECTOR.invokeExact();
+        store = (Object) Solver.NEW_SHARE_STORE.invokeExact();
+        for (int i = 0; i < k; i++) {
+            Solver.SHARE_STORE_ADD.invokeExact(store, xs[i], ys[i]);
+        }
+        // Calibrates the selector, and caches the weights for large k, before measuring
+        ignored = (BigInteger) Solver.SELECTED_CONSTANT_TERM.invokeExact(selector, store, k);
+    }
+
+    /**
+     * The engine the selector picks for these shares, as batch and interactive
+     * runs call it: long arithmetic for small k and y below 63 bits, exact or
+     * modular above that.
+     */
+    @Benchmark
+    public BigInteger findConstantTermSelected() throws Throwable {
+        return (BigInteger) Solver.SELECTED_CONSTANT_TERM.invokeExact(selector, store, k);
+    }
+
+    /** findConstantTerm for a share layout already in the coefficient cache. */
+    @Benchmark
+    public BigInteger findConstantTermCached() throws Throwable {
+        return (BigInteger) Solver.CACHED_CONSTANT_TERM.invokeExact(cache, xs, ys);
+    }
+
+    /** Building the barycentric weights from scratch; O(k^2) big-integer work. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public BigInteger findConstantTermCold() throws Throwable {
+        Object weights = (Object) Solver.NEW_WEIGHTS.invokeExact(xs);
+        return (BigInteger) Solver.WEIGHTS_CONSTANT_TERM.invokeExact(weights, ys);
+    }
+
+    /** The same reconstruction in GF(2^61 - 1). */
+    @Benchmark
+    public long findConstantTermField() throws Throwable {
+        return (long) Solver.FIELD_CONSTANT_TERM.invokeExact(fieldLagrange, xs, residues, k);
+    }
+}
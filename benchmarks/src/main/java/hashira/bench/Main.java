@@ -0,0 +1,29 @@
+package hashira.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JMH entry point that always attaches the GC profiler, so every run
+ * reports allocation rate (gc.alloc.rate.norm) next to throughput.
+ */
+public final class Main {
+
+    private Main() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        boolean hasGcProfiler = false;
+        for (int i = 0; i + 1 < jmhArgs.size(); i++) {
+            hasGcProfiler |= jmhArgs.get(i).equals("-prof") && jmhArgs.get(i + 1).startsWith("gc");
+        }
+        boolean listing = jmhArgs.contains("-l") || jmhArgs.contains("-lp") || jmhArgs.contains("-h");
+        if (!hasGcProfiler && !listing) {
+            jmhArgs.add("-prof");
+            jmhArgs.add("gc");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
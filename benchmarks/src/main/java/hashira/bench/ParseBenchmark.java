@@ -0,0 +1,48 @@
+package hashira.bench;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Streaming parse of a share file with k + 3 points, as in testcase2.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({ "3", "7", "64", "1024", "16384" })
+    public int k;
+
+    @Param({ "64", "256", "1024" })
+    public int bits;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = ShareData.random();
+        file = ShareData.writeJson(ShareData.randomValues(k + 3, bits, random), k, random);
+    }
+
+    @Benchmark
+    public Object parseJsonTestCase() throws Throwable {
+        return (Object) Solver.PARSE_JSON_TEST_CASE.invokeExact(file);
+    }
+}
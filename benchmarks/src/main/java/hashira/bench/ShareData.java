@@ -0,0 +1,79 @@
+package hashira.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Synthetic share sets in the testcase2.json layout.
+ */
+final class ShareData {
+
+    /** Bases that appear in the bundled test cases. */
+    private static final int[] BASES = { 2, 3, 4, 6, 7, 8, 10, 12, 15, 16 };
+
+    private ShareData() {
+    }
+
+    static Random random() {
+        return new Random(0x5EC12E7L);
+    }
+
+    /** x = 1..n. */
+    static long[] xs(int n) {
+        long[] xs = new long[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = i + 1;
+        }
+        return xs;
+    }
+
+    /** Uniformly random non-negative values of exactly the given bit length. */
+    static BigInteger[] randomValues(int count, int bits, Random random) {
+        BigInteger[] values = new BigInteger[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = new BigInteger(bits - 1, random).setBit(bits - 1);
+        }
+        return values;
+    }
+
+    /**
+     * f(1..n) for a random degree k-1 polynomial with positive coefficients
+     * of the given bit length, so every share is a valid point.
+     */
+    static BigInteger[] polynomialShares(int n, int k, int bits, Random random) {
+        BigInteger[] coefficients = randomValues(k, bits, random);
+        BigInteger[] ys = new BigInteger[n];
+        for (int x = 1; x <= n; x++) {
+            BigInteger y = coefficients[k - 1];
+            BigInteger bx = BigInteger.valueOf(x);
+            for (int j = k - 2; j >= 0; j--) {
+                y = y.multiply(bx).add(coefficients[j]);
+            }
+            ys[x - 1] = y;
+        }
+        return ys;
+    }
+
+    /**
+     * Write n shares of which k are needed, each y encoded in a random base.
+     */
+    static Path writeJson(BigInteger[] ys, int k, Random random) throws IOException {
+        Path file = Files.createTempFile("hashira-bench", ".json");
+        file.toFile().deleteOnExit();
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("{\n\"keys\": {\n    \"n\": " + ys.length + ",\n    \"k\": " + k + "\n  }");
+            for (int i = 0; i < ys.length; i++) {
+                int base = BASES[random.nextInt(BASES.length)];
+                out.write(",\n  \"" + (i + 1) + "\": {\n    \"base\": \"" + base
+                    + "\",\n    \"value\": \"" + ys[i].toString(base) + "\"\n  }");
+            }
+            out.write("\n}\n");
+        }
+        return file;
+    }
+}
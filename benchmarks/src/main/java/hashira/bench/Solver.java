@@ -0,0 +1,172 @@
+package hashira.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Method handles onto the solver classes.
+ *
+ * JMH refuses benchmarks in the default package, and Java code in a named
+ * package cannot refer to default-package classes by name, so the
+ * benchmarks reach the solver through constant method handles. Types that
+ * are not visible from here are erased to Object; a static final handle
+ * called with invokeExact is inlined by the JIT like a direct call.
+ */
+final class Solver {
+
+    /** HashiraSecretSharing.parseJsonTestCase(Path) : TestCase */
+    static final MethodHandle PARSE_JSON_TEST_CASE =
+        method("HashiraSecretSharing", "parseJsonTestCase", Object.class, Path.class);
+
+    /** new HashiraSecretSharing.PointData(int, int, String) */
+    static final MethodHandle NEW_POINT_DATA =
+        constructor("HashiraSecretSharing$PointData", int.class, int.class, String.class);
+
+    /** new ShareStore() */
+    static final MethodHandle NEW_SHARE_STORE =
+        constructor("ShareStore");
+
+    /** ShareStore.add(PointData), which converts the digits */
+    static final MethodHandle SHARE_STORE_ADD_POINT =
+        method("ShareStore", "add", void.class, Object.class, Object.class);
+
+    /** ShareStore.add(long, BigInteger) */
+    static final MethodHandle SHARE_STORE_ADD =
+        method("ShareStore", "add", void.class, Object.class, long.class, BigInteger.class);
+
+    /** ShareStore.clear() */
+    static final MethodHandle SHARE_STORE_CLEAR =
+        method("ShareStore", "clear", void.class, Object.class);
+
+    /** EngineSelector.shared() : EngineSelector */
+    static final MethodHandle SHARED_SELECTOR =
+        method("EngineSelector", "shared", Object.class);
+
+    /** EngineSelector.constantTerm(ShareStore, int) : BigInteger */
+    static final MethodHandle SELECTED_CONSTANT_TERM =
+        method("EngineSelector", "constantTerm", BigInteger.class, Object.class, Object.class, int.class);
+
+    /** new BarycentricWeights(long[]) */
+    static final MethodHandle NEW_WEIGHTS =
+        constructor("BarycentricWeights", long[].class);
+
+    /** BarycentricWeights.constantTerm(BigInteger[]) : BigInteger */
+    static final MethodHandle WEIGHTS_CONSTANT_TERM =
+        method("BarycentricWeights", "constantTerm", BigInteger.class, Object.class, BigInteger[].class);
+
+    /** LagrangeCache.shared() : LagrangeCache */
+    static final MethodHandle SHARED_CACHE =
+        method("LagrangeCache", "shared", Object.class);
+
+    /** LagrangeCache.constantTerm(long[], BigInteger[]) : BigInteger */
+    static final MethodHandle CACHED_CONSTANT_TERM =
+        method("LagrangeCache", "constantTerm", BigInteger.class, Object.class, long[].class, BigInteger[].class);
+
+    /** PrimeField.of(long) : PrimeField */
+    static final MethodHandle PRIME_FIELD =
+        method("PrimeField", "of", Object.class, long.class);
+
+    /** new FieldLagrange(PrimeField, int) */
+    static final MethodHandle NEW_FIELD_LAGRANGE =
+        constructor("FieldLagrange", Object.class, int.class);
+
+    /** FieldLagrange.constantTerm(long[], long[], int) : long */
+    static final MethodHandle FIELD_CONSTANT_TERM =
+        method("FieldLagrange", "constantTerm", long.class, Object.class, long[].class, long[].class, int.class);
+
+    /** new NewtonPolynomial(long[], BigInteger[]) */
+    static final MethodHandle NEW_NEWTON =
+        constructor("NewtonPolynomial", long[].class, BigInteger[].class);
+
+    /** NewtonPolynomial.scaledValueAt(long) : BigInteger */
+    static final MethodHandle NEWTON_SCALED_VALUE =
+        method("NewtonPolynomial", "scaledValueAt", BigInteger.class, Object.class, long.class);
+
+    private Solver() {
+    }
+
+    /**
+     * Handle for a static or instance method, found by name and parameter
+     * types and adapted to the given erased type (receiver first for instance
+     * methods). Object stands for a solver type, as in {@link #matches}.
+     */
+    private static MethodHandle method(String owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            Class<?> type = Class.forName(owner);
+            Method found = null;
+            for (Method m : type.getDeclaredMethods()) {
+                if (!m.getName().equals(name)) {
+                    continue;
+                }
+                Class<?>[] declared = params;
+                if (!Modifier.isStatic(m.getModifiers())) {
+                    if (params.length == 0 || !stands(params[0], type)) {
+                        continue;
+                    }
+                    declared = Arrays.copyOfRange(params, 1, params.length);
+                }
+                if (matches(m, declared)) {
+                    if (found != null) {
+                        throw new NoSuchMethodException("Ambiguous " + owner + "." + name);
+                    }
+                    found = m;
+                }
+            }
+            if (found == null) {
+                throw new NoSuchMethodException(owner + "." + name);
+            }
+            return lookup(type).unreflect(found).asType(MethodType.methodType(returnType, params));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(String owner, Class<?>... params) {
+        try {
+            Class<?> type = Class.forName(owner);
+            for (Constructor<?> c : type.getDeclaredConstructors()) {
+                if (matches(c, params)) {
+                    return lookup(type).unreflectConstructor(c)
+                        .asType(MethodType.methodType(Object.class, params));
+                }
+            }
+            throw new NoSuchMethodException(owner + ".<init>");
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Whether the parameter types are exactly params, with Object standing
+     * for a solver type that cannot be named from here.
+     */
+    private static boolean matches(Executable e, Class<?>[] params) {
+        if (e.getParameterCount() != params.length) {
+            return false;
+        }
+        Class<?>[] actual = e.getParameterTypes();
+        for (int i = 0; i < params.length; i++) {
+            if (!stands(params[i], actual[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Solver types live in the unnamed package and are erased to Object. */
+    private static boolean stands(Class<?> param, Class<?> actual) {
+        return param == actual || param == Object.class && actual.getPackageName().isEmpty();
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+}
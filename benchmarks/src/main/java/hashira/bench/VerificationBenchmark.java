@@ -0,0 +1,68 @@
+package hashira.bench;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Polynomial evaluation for verifyPolynomial: building the Newton form from
+ * k shares of a real degree k-1 polynomial, and checking one extra share.
+ *
+ * Setup evaluates the polynomial at k + 1 points, which is itself O(k^2)
+ * big-integer work; expect long setup times at the largest k.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerificationBenchmark {
+
+    @Param({ "3", "7", "64", "1024", "16384" })
+    public int k;
+
+    @Param({ "64", "256", "1024" })
+    public int bits;
+
+    private long[] basisXs;
+    private BigInteger[] basisYs;
+    private long extraX;
+    private Object polynomial;
+
+    @Setup
+    public void setUp() throws Throwable {
+        BigInteger[] ys = ShareData.polynomialShares(k + 1, k, bits, ShareData.random());
+        basisXs = ShareData.xs(k);
+        basisYs = java.util.Arrays.copyOf(ys, k);
+        extraX = k + 1;
+        polynomial = (Object) Solver.NEW_NEWTON.invokeExact(basisXs, basisYs);
+    }
+
+    /** One O(k) Horner pass per verification point. */
+    @Benchmark
+    public BigInteger evaluatePolynomial() throws Throwable {
+        return (BigInteger) Solver.NEWTON_SCALED_VALUE.invokeExact(polynomial, extraX);
+    }
+
+    /** The one-off O(k^2) divided-difference table. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Object buildNewtonForm() throws Throwable {
+        return (Object) Solver.NEW_NEWTON.invokeExact(basisXs, basisYs);
+    }
+}